@@ -0,0 +1,64 @@
+package purpleguy;
+
+import java.time.LocalDateTime;
+
+import purpleguy.tasklist.ObjectTaskList;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Builds the ledgers the benchmarks run against.
+ * Names draw on a small vocabulary so that searches hit a realistic mix of common and rare trigrams.
+ */
+public class BenchmarkData {
+    private static final String[] WORDS = {
+        "homework", "household", "chores", "sports", "day", "project", "meeting", "report", "dentist", "gym",
+        "groceries", "laundry", "revision", "lecture", "tutorial", "birthday", "rent", "flight", "pizzeria", "shift"
+    };
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private BenchmarkData() {}
+
+    /**
+     * Creates a taskList of the given size, cycling through todos, deadlines and events
+     * @param size Number of tasks
+     */
+    public static TaskList createTaskList(int size) {
+        return fill(new ObjectTaskList(), size);
+    }
+
+    /**
+     * Adds tasks to the given taskList until it holds the given number of tasks
+     * @param tL The taskList to fill, such as a ColumnarTaskList
+     * @param size Number of tasks
+     */
+    public static TaskList fill(TaskList tL, int size) {
+        for (int i = tL.size(); i < size; i++) {
+            tL.addTask(createTask(i));
+        }
+        return tL;
+    }
+
+    /**
+     * Creates the i-th benchmark task, marking every third one
+     */
+    public static Task createTask(int i) {
+        String name = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+        LocalDateTime time = BASE_TIME.plusHours(i);
+        Task task;
+        switch (i % 3) {
+        case 0:
+            task = new ToDo(name);
+            break;
+        case 1:
+            task = new Deadline(name, time);
+            break;
+        default:
+            task = new Event(name, time, time.plusHours(2));
+            break;
+        }
+        if (i % 3 == 0) {
+            task.mark();
+        }
+        return task;
+    }
+}
@@ -0,0 +1,48 @@
+package purpleguy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import purpleguy.storage.Storage;
+
+/**
+ * Measures rendering the task list, both as one full listing and as a single default-sized page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CommandRunnerBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private CommandRunner runner;
+
+    @Setup
+    public void setUp() {
+        runner = new CommandRunner(BenchmarkData.createTaskList(size), new Storage());
+    }
+
+    @Benchmark
+    public String listAll() {
+        return runner.listTasks();
+    }
+
+    @Benchmark
+    public String listPage() {
+        return runner.listTasks(1, CommandRunner.DEFAULT_PAGE_SIZE);
+    }
+}
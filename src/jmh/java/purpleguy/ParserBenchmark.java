@@ -0,0 +1,120 @@
+package purpleguy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import purpleguy.exception.AftonException;
+import purpleguy.parser.Parser;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Measures Parser.parse end to end, from splitting the input to the command's reply, for each command type.
+ * Storage is held in a batch so that only the in-memory work is timed, and the ledger is rebuilt for every
+ * iteration so that the commands which add tasks do not grow it without bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParserBenchmark {
+    private static final int LEDGER_SIZE = 1000;
+
+    private Parser parser;
+
+    /**
+     * Creates a fresh ledger of LEDGER_SIZE tasks and a parser acting on it
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        TaskList tL = BenchmarkData.createTaskList(LEDGER_SIZE);
+        Storage storage = new Storage();
+        storage.beginBatch();
+        parser = new Parser(tL, storage);
+    }
+
+    @Benchmark
+    public String list() throws AftonException {
+        return parser.parse("list");
+    }
+
+    @Benchmark
+    public String todo() throws AftonException {
+        return parser.parse("todo read the manual");
+    }
+
+    @Benchmark
+    public String deadline() throws AftonException {
+        return parser.parse("deadline household chores /by 2026-01-28 13:00");
+    }
+
+    @Benchmark
+    public String event() throws AftonException {
+        return parser.parse("event sports day /from 2026-02-01 08:00 /to 2026-02-01 17:00");
+    }
+
+    @Benchmark
+    public String mark() throws AftonException {
+        return parser.parse("mark 500");
+    }
+
+    @Benchmark
+    public String unmark() throws AftonException {
+        return parser.parse("unmark 500");
+    }
+
+    /**
+     * Adds a task and deletes it again, so the ledger keeps its size
+     */
+    @Benchmark
+    public String todoThenDelete() throws AftonException {
+        parser.parse("todo read the manual");
+        return parser.parse("delete " + (LEDGER_SIZE + 1));
+    }
+
+    @Benchmark
+    public String find() throws AftonException {
+        return parser.parse("find laundry");
+    }
+
+    @Benchmark
+    public String due() throws AftonException {
+        return parser.parse("due 7d");
+    }
+
+    @Benchmark
+    public String on() throws AftonException {
+        return parser.parse("on 2026-01-15");
+    }
+
+    @Benchmark
+    public String help() throws AftonException {
+        return parser.parse("help deadline");
+    }
+
+    /**
+     * Rejects a malformed time through the path BatchRunner uses, which builds no message
+     */
+    @Benchmark
+    public ParsedCommand rejectedTime() {
+        return parser.tryParse("deadline household chores /by tomorrow");
+    }
+
+    @Benchmark
+    public ParsedCommand rejectedIndex() {
+        return parser.tryParse("mark five");
+    }
+}
@@ -0,0 +1,93 @@
+package purpleguy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import purpleguy.exception.AftonException;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.ObjectTaskList;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Measures loading and saving whole ledgers of different sizes in each snapshot format,
+ * and saving one after a single change.
+ * Snapshots go to a temporary directory which is removed once the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"TEXT", "BINARY", "PAGED"})
+    private Storage.Format format;
+
+    private Path tempDir;
+    private Storage storage;
+    private TaskList tL;
+
+    /**
+     * Writes the ledger once so there is a snapshot to read back
+     */
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("purpleguy-bench");
+        storage = new Storage(tempDir.resolve("PurpleGuy.txt").toString(), false,
+            Storage.DEFAULT_COMPACTION_THRESHOLD, format);
+        tL = BenchmarkData.createTaskList(size);
+        storage.storeTL(tL);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(tempDir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TaskList readTL() throws AftonException {
+        TaskList loadedTL = new ObjectTaskList();
+        storage.readTL(loadedTL);
+        return loadedTL;
+    }
+
+    @Benchmark
+    public void storeTL() {
+        storage.storeTL(tL);
+    }
+
+    /**
+     * Saves the ledger after a single task in the middle of it changed, which the paged format does by
+     * rewriting one page instead of the whole file
+     */
+    @Benchmark
+    public void markThenStore() {
+        int middle = size / 2;
+        if (tL.get(middle).isMarked()) {
+            tL.unmark(middle);
+        } else {
+            tL.mark(middle);
+        }
+        storage.storeTL(tL);
+    }
+}
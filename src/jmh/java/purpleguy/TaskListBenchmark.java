@@ -0,0 +1,61 @@
+package purpleguy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import purpleguy.tasklist.ColumnarTaskList;
+import purpleguy.tasklist.ObjectTaskList;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Measures TaskList.findTasks across ledger sizes, for a query answered by the trigram index,
+ * a query with no matches, and a query too short for the index which falls back to a scan.
+ * Each is run against both the ObjectTaskList and the ColumnarTaskList.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"objects", "columnar"})
+    private String layout;
+
+    private TaskList tL;
+
+    @Setup
+    public void setUp() {
+        tL = BenchmarkData.fill(layout.equals("columnar") ? new ColumnarTaskList() : new ObjectTaskList(), size);
+    }
+
+    @Benchmark
+    public List<Task> findIndexed() {
+        return tL.findTasks("laundry rent");
+    }
+
+    @Benchmark
+    public List<Task> findMissing() {
+        return tL.findTasks("freddy");
+    }
+
+    @Benchmark
+    public List<Task> findShort() {
+        return tL.findTasks("gy");
+    }
+}
@@ -0,0 +1,75 @@
+package purpleguy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.scene.control.ListView;
+
+/**
+ * Measures the cost of putting one message on screen, which should stay well inside a 16 ms frame.
+ * Goes through the same TranscriptCell the transcript refills as messages are appended and scrolled past.
+ * Starts the JavaFX toolkit, so it needs a display (or a headless Monocle/Xvfb setup) to run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TranscriptCellBenchmark {
+    private static final String MESSAGE = "A deadline? How fitting. Time is a luxury most of them didn't have.\n"
+        + " [D][ ] household chores (by: Jan 28 2026 13:00) \nThat's 42 clocks ticking in the dark\n";
+
+    private TranscriptCell cell;
+    private TranscriptEntry userEntry;
+    private TranscriptEntry replyEntry;
+
+    /**
+     * Starts the JavaFX toolkit and creates a cell sharing the avatars of one DialogFactory
+     */
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // The toolkit is already running in this JVM
+        }
+        cell = new TranscriptCell(new ListView<>(), new DialogFactory());
+        userEntry = new TranscriptEntry(MESSAGE, false);
+        replyEntry = new TranscriptEntry(MESSAGE, true);
+        // Only a reply's first showing glitches, so this measures the refill a scroll costs
+        replyEntry.consumeGlitch();
+    }
+
+    @Benchmark
+    public TranscriptCell showUserMessage() {
+        cell.updateItem(userEntry, false);
+        return cell;
+    }
+
+    @Benchmark
+    public TranscriptCell showReply() {
+        cell.updateItem(replyEntry, false);
+        return cell;
+    }
+
+    /**
+     * Shows a reply for the first time, which is what appending Afton's answer costs, glitch included
+     */
+    @Benchmark
+    public TranscriptCell showNewReply() {
+        cell.updateItem(new TranscriptEntry(MESSAGE, true), false);
+        return cell;
+    }
+}
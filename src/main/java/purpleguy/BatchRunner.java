@@ -0,0 +1,112 @@
+package purpleguy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import purpleguy.parser.Parser;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Runs a stream of commands without the UI, one command per line.
+ * Every accepted command is applied to the taskList as part of a single batch which is persisted once at the end,
+ * and a summary is returned instead of the reply to each command.
+ * Commands are applied line by line, so a batch is not atomic: if the commands stop being readable partway through,
+ * the ones already applied are kept and persisted, and the summary says where the batch stopped.
+ */
+public class BatchRunner {
+    private static final int MAX_REPORTED_REJECTIONS = 10;
+
+    private final TaskList tL;
+    private final Storage storage;
+    private final Parser parser;
+
+    /**
+     * Creates a BatchRunner which applies commands to the given taskList
+     * @param taskList The current taskList
+     * @param storage Storage the batch is persisted to once it completes
+     */
+    public BatchRunner(TaskList taskList, Storage storage) {
+        this(taskList, storage, new Parser(taskList, storage));
+    }
+
+    /**
+     * Creates a BatchRunner which applies commands through the given parser, so that their timings and rejections
+     * are recorded to the same metrics as the commands typed in
+     * @param taskList The current taskList
+     * @param storage Storage the batch is persisted to once it completes
+     * @param parser Parser of the given taskList and storage
+     */
+    public BatchRunner(TaskList taskList, Storage storage, Parser parser) {
+        this.tL = taskList;
+        this.storage = storage;
+        this.parser = parser;
+    }
+
+    /**
+     * Executes every command read from the reader until it runs out of lines or a "bye" is reached
+     * Blank lines are skipped, and rejected commands are counted and reported without stopping the batch.
+     * A read error stops the batch, keeping the commands applied before it.
+     * @param reader Source of the commands
+     * @return Summary of the batch
+     */
+    public String run(BufferedReader reader) {
+        long startTime = System.nanoTime();
+        long lineNumber = 0;
+        long applied = 0;
+        long rejected = 0;
+        StringBuilder rejections = new StringBuilder();
+        IOException readError = null;
+        storage.beginBatch();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String input = line.trim();
+                if (input.isEmpty()) {
+                    continue;
+                }
+                if (input.equals("bye")) {
+                    break;
+                }
+                ParsedCommand result = parser.tryParse(input);
+                if (!result.isRejected()) {
+                    applied++;
+                    continue;
+                }
+                rejected++;
+                // Only the reported rejections have their messages built
+                if (rejected <= MAX_REPORTED_REJECTIONS) {
+                    rejections.append("\n  line ").append(lineNumber).append(": ")
+                        .append(result.getErrorMessage().lines().findFirst().orElse(""));
+                }
+            }
+        } catch (IOException e) {
+            readError = e;
+        } finally {
+            storage.commitBatch(tL);
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        StringBuilder summary = new StringBuilder();
+        if (readError == null) {
+            summary.append("Batch complete: ");
+        } else {
+            summary.append("Batch stopped after line ").append(lineNumber)
+                .append(", I couldn't read the rest: ").append(readError.getMessage())
+                .append("\nThe commands before it were kept: ");
+        }
+        summary.append(lineNumber).append(" lines, ")
+            .append(applied).append(" applied, ")
+            .append(rejected).append(" rejected in ")
+            .append(elapsedMillis).append(" ms. ")
+            .append(tL.size()).append(" tasks in the ledger.");
+        if (rejected > 0) {
+            summary.append("\nRejected:").append(rejections);
+            if (rejected > MAX_REPORTED_REJECTIONS) {
+                summary.append("\n  ...and ").append(rejected - MAX_REPORTED_REJECTIONS).append(" more");
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,219 @@
+package purpleguy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import purpleguy.exception.AftonException;
+import purpleguy.exception.UnreadableLedgerException;
+import purpleguy.exception.ValidationError;
+import purpleguy.metrics.Metrics;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Holds every command the user can issue, keyed by name.
+ * Built once per Parser around its own CommandRunner, so registries for different ledgers share no state.
+ * Each input costs one map lookup followed by its command's validate and execute steps,
+ * each of which is timed separately in the metrics, whether or not it succeeds. Rejected inputs are also
+ * counted per command. Commands which change the taskList run one at a time; queries such as list and find
+ * do not wait for them.
+ */
+public class CommandRegistry {
+    /**
+     * Checks the details of a command before it is carried out, converting each of them once
+     * Rejected details are returned as a rejected ParsedCommand rather than thrown.
+     */
+    @FunctionalInterface
+    public interface Validation {
+        ParsedCommand validate(String[] details);
+    }
+
+    /**
+     * Carries out a command whose details have been validated
+     */
+    @FunctionalInterface
+    public interface Action {
+        String execute(ParsedCommand command) throws AftonException;
+    }
+
+    private static final Validation NO_VALIDATION = details -> ParsedCommand.EMPTY;
+
+    private final Map<String, Command> commands = new HashMap<>();
+    private final TaskList tL;
+    private final Metrics metrics;
+
+    /**
+     * Builds the registry of commands acting on the given taskList
+     * @param taskList The current taskList
+     * @param storage Storage each change to the taskList is recorded to
+     * @param metrics Metrics each command's timings are recorded to
+     */
+    public CommandRegistry(TaskList taskList, Storage storage, Metrics metrics) {
+        tL = taskList;
+        this.metrics = metrics;
+        CommandRunner runner = new CommandRunner(taskList, storage);
+        registerQuery("list", details -> CommandValidator.validateList(details, tL), runner::listPage);
+        register("todo", details -> CommandValidator.validateMissingInfo(details, "todo")
+            .then(() -> CommandValidator.validateTodo(details)), runner::createTodo);
+        register("deadline", details -> CommandValidator.validateMissingInfo(details, "deadline")
+            .then(() -> CommandValidator.validateDeadline(details)), runner::createDeadline);
+        register("event", details -> CommandValidator.validateMissingInfo(details, "event")
+            .then(() -> CommandValidator.validateEvent(details)), runner::createEvent);
+        register("mark", details -> validateTarget(details, "mark"), runner::markTargets);
+        register("unmark", details -> validateTarget(details, "unmark"), runner::unmarkTargets);
+        register("delete", details -> validateTarget(details, "delete"), runner::deleteTargets);
+        registerQuery("find", details -> validateSearch(details, "find")
+            .then(() -> ParsedCommand.ofText(details[0].toLowerCase())), runner::findTask);
+        registerQuery("due", details -> validateSearch(details, "due")
+            .then(() -> CommandValidator.validateDue(details)), runner::findDue);
+        registerQuery("on", details -> validateSearch(details, "on")
+            .then(() -> CommandValidator.validateOn(details)), runner::findOn);
+        registerQuery("export", details -> CommandValidator.validateFilePath(details, "export"),
+            runner::exportTasks);
+        register("import", details -> CommandValidator.validateFilePath(details, "import"),
+            runner::importTasks);
+        registerQuery("stats", NO_VALIDATION, command -> CommandRunner.displayStats(metrics));
+        registerQuery("help", details -> {
+            if (details.length == 0) {
+                return ParsedCommand.EMPTY;
+            }
+            return CommandValidator.validateMissingInfo(details, "help")
+                .then(() -> CommandValidator.validateHelp(details[0], commands.keySet()));
+        }, command -> command.getText() == null
+            ? CommandRunner.displayAllHelp()
+            : CommandRunner.displayHelp(command.getText()));
+        registerQuery("bye", NO_VALIDATION, command -> CommandRunner.sayGoodbye());
+    }
+
+    /**
+     * Validates and executes a command
+     * @param command Name of the command
+     * @param details String array of details derived from the user input
+     * @return Output message of the command
+     * @throws AftonException If the command is unknown or its details are invalid
+     */
+    public String execute(String command, String[] details) throws AftonException {
+        Command c = commands.get(command);
+        if (c == null) {
+            throw new AftonException(ValidationError.UNKNOWN_COMMAND.format(command));
+        }
+        if (c.isQuery) {
+            return execute(c, details);
+        }
+        // Commands can arrive from the UI and from batches, so each change is validated and executed as a unit
+        synchronized (tL) {
+            return execute(c, details);
+        }
+    }
+
+    /**
+     * Validates and executes a command without throwing or building a message when it is rejected
+     * The output of the command is discarded, so this suits callers which only count what was applied.
+     * @param command Name of the command
+     * @param details String array of details derived from the user input
+     * @return The validated command, or the reason it was rejected
+     */
+    public ParsedCommand tryExecute(String command, String[] details) {
+        Command c = commands.get(command);
+        if (c == null) {
+            return ParsedCommand.rejected(ValidationError.UNKNOWN_COMMAND, command);
+        }
+        if (c.isQuery) {
+            return tryExecute(c, details);
+        }
+        synchronized (tL) {
+            return tryExecute(c, details);
+        }
+    }
+
+    private String execute(Command c, String[] details) throws AftonException {
+        long startTime = System.nanoTime();
+        ParsedCommand parsedCommand;
+        try {
+            parsedCommand = c.validation.validate(details);
+        } catch (UnreadableLedgerException e) {
+            throw new AftonException(e.getMessage());
+        } finally {
+            metrics.recordSince(c.validateStage, startTime);
+        }
+        long validatedTime = System.nanoTime();
+        if (parsedCommand.isRejected()) {
+            metrics.count(c.rejectedCounter, 1);
+            throw new AftonException(parsedCommand.getErrorMessage());
+        }
+        try {
+            return c.action.execute(parsedCommand);
+        } catch (UnreadableLedgerException e) {
+            throw new AftonException(e.getMessage());
+        } finally {
+            metrics.recordSince(c.executeStage, validatedTime);
+        }
+    }
+
+    private ParsedCommand tryExecute(Command c, String[] details) {
+        long startTime = System.nanoTime();
+        ParsedCommand parsedCommand;
+        try {
+            parsedCommand = c.validation.validate(details);
+        } catch (UnreadableLedgerException e) {
+            return ParsedCommand.rejected(ValidationError.COMMAND_FAILED, e.getMessage());
+        } finally {
+            metrics.recordSince(c.validateStage, startTime);
+        }
+        long validatedTime = System.nanoTime();
+        if (parsedCommand.isRejected()) {
+            metrics.count(c.rejectedCounter, 1);
+            return parsedCommand;
+        }
+        try {
+            c.action.execute(parsedCommand);
+            return parsedCommand;
+        } catch (AftonException | UnreadableLedgerException e) {
+            return ParsedCommand.rejected(ValidationError.COMMAND_FAILED, e.getMessage());
+        } finally {
+            metrics.recordSince(c.executeStage, validatedTime);
+        }
+    }
+
+    private void register(String name, Validation validation, Action action) {
+        commands.put(name, new Command(name, validation, action, false));
+    }
+
+    /**
+     * Registers a command which only reads the taskList, so it never waits for commands which change it
+     */
+    private void registerQuery(String name, Validation validation, Action action) {
+        commands.put(name, new Command(name, validation, action, true));
+    }
+
+    private ParsedCommand validateTarget(String[] details, String command) {
+        return CommandValidator.validateMissingInfo(details, command)
+            .then(() -> CommandValidator.validateTarget(details, command, tL));
+    }
+
+    private ParsedCommand validateSearch(String[] details, String command) {
+        return CommandValidator.validateMissingInfo(details, command)
+            .then(() -> CommandValidator.validateFind(tL.isEmpty()));
+    }
+
+    /**
+     * A command's validation and action, along with the names its timings and rejections are recorded under
+     */
+    private static class Command {
+        private final Validation validation;
+        private final Action action;
+        private final String validateStage;
+        private final String executeStage;
+        private final String rejectedCounter;
+        private final boolean isQuery;
+
+        Command(String name, Validation validation, Action action, boolean isQuery) {
+            this.validation = validation;
+            this.action = action;
+            this.isQuery = isQuery;
+            this.validateStage = "validate." + name;
+            this.executeStage = "execute." + name;
+            this.rejectedCounter = "rejected." + name;
+        }
+    }
+}
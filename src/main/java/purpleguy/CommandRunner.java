@@ -1,14 +1,17 @@
 package purpleguy;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
+import purpleguy.exception.AftonException;
+import purpleguy.metrics.Metrics;
 import purpleguy.storage.Storage;
 import purpleguy.tasklist.TaskList;
 
 /**
  * Executes the commands inputted by the user
+ * Each command in the CommandRegistry calls the step it needs once its input is validated.
  */
 public class CommandRunner {
     private static final String TODO_ADD_MESSAGE = "Another? Let's see how long this one lasts.\n %s\n"
@@ -26,45 +29,116 @@ public class CommandRunner {
                 + "When the clock is ticking against you\n";
     private static final String EVENT_HELP_MESSAGE = "Command: event [name] /from [time] /to [time]\n"
                 + "For the performances you must attend\n";
-    private static final String LIST_HELP_MESSAGE = "Command: list\n"
-                + "Do not add any words after list\n"
-                + "To see the current residents of my ledger.\n";
+    private static final String LIST_HELP_MESSAGE = "Command: list [page] [size]\n"
+                + "[page] and [size] are optional and must be numbers, with [size] at most 1000\n"
+                + "To see the current residents of my ledger, a page at a time.\n";
     private static final String FIND_HELP_MESSAGE = "Command: find [keyword]\n"
                 + "To hunt for fragments of the past\n";
-    private static final String MARK_HELP_MESSAGE = "Command: mark [index]\n"
-                + "[index] must be a number\n"
-                + "Use the index to silence a record. Once marked, it belongs to the past.\n";
-    private static final String UNMARK_HELP_MESSAGE = "Command: unmark [index]\n"
-                + "[index] must be a number\n"
+    private static final String DUE_HELP_MESSAGE = "Command: due [number]h or due [number]d\n"
+                + "To hear which clocks will stop within the next few hours or days\n";
+    private static final String ON_HELP_MESSAGE = "Command: on [date] or on [time] /to [time]\n"
+                + "[date] must follow yyyy-MM-dd and [time] must follow yyyy-MM-dd HH:mm format\n"
+                + "To see every deadline and performance scheduled for that night\n";
+    private static final String MARK_HELP_MESSAGE = "Command: mark [index] or mark #[id]\n"
+                + "[index] must be a number, and [id] is the #number list shows beside each task\n"
+                + "Use the index to silence a record. Once marked, it belongs to the past.\n"
+                + "Also mark [from]-[to], mark done, mark undone or mark find [keyword] for many at once\n";
+    private static final String UNMARK_HELP_MESSAGE = "Command: unmark [index] or unmark #[id]\n"
+                + "[index] must be a number, and [id] is the #number list shows beside each task\n"
                 + "Nothing ever stays dead here. If you've made a mistake,"
-                + " I can drag that record back into the light.\n";
-    private static final String DELETE_HELP_MESSAGE = "Command: delete [index]\n"
-                + "[index] must be a number\n"
-                + "To erase something...or someone...forever\n";
+                + " I can drag that record back into the light.\n"
+                + "Also unmark [from]-[to], unmark done, unmark undone or unmark find [keyword] for many at once\n";
+    private static final String DELETE_HELP_MESSAGE = "Command: delete [index] or delete #[id]\n"
+                + "[index] must be a number, and [id] is the #number list shows beside each task\n"
+                + "To erase something...or someone...forever\n"
+                + "Also delete [from]-[to], delete done, delete undone or delete find [keyword] for many at once\n";
+    private static final String EXPORT_HELP_MESSAGE = "Command: export [file]\n"
+                + "To copy every record into a plain text file, one task per line, for safekeeping elsewhere\n";
+    private static final String IMPORT_HELP_MESSAGE = "Command: import [file]\n"
+                + "To drag every task in a plain text file, such as one made by export, into my ledger\n";
+    private static final String STATS_HELP_MESSAGE = "Command: stats\n"
+                + "To see how long each part of my machinery takes to answer you, in microseconds\n";
     private static final String HELP_HELP_MESSAGE = "Command: help [command]\n"
                 + "Just type 'help' followed by the name of a command to peek behind the curtain.\n";
     private static final String BYE_HELP_MESSAGE = "Command: bye\n"
                 + "Use this to sever our connection... but remember, I always come back.\n";
 
-    private static TaskList tL;
-    private static Storage storageFile = new Storage();
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    /** Marks a task reference as an ID rather than a list index, e.g. "delete #12" */
+    public static final String ID_PREFIX = "#";
+    // Selectors which let mark, unmark and delete act on many tasks at once
+    static final Pattern RANGE_PATTERN = Pattern.compile("([1-9]\\d{0,8})-([1-9]\\d{0,8})");
+    static final String MARKED_SELECTOR = "done";
+    static final String UNMARKED_SELECTOR = "undone";
+    static final String FIND_SELECTOR = "find";
+    private static final int ESTIMATED_LINE_LENGTH = 64;
+    // Builders are presized for at most this many lines and grow past it as needed
+    private static final int MAX_PRESIZED_LINES = 1024;
+
+    private final TaskList tL;
+    private final Storage storageFile;
 
     public CommandRunner(TaskList taskList) {
+        this(taskList, new Storage());
+    }
+
+    /**
+     * Creates a CommandRunner which records mutations through the given storage
+     * @param taskList The current taskList
+     * @param storage Storage that each mutation is persisted to
+     */
+    public CommandRunner(TaskList taskList, Storage storage) {
         tL = taskList;
+        storageFile = storage;
     }
 
     /**
      * Lists all valid tasks inputted and stored in this task list.
      * @return String of all content in list
      */
-
-    public static String listTasks() {
+    public String listTasks() {
         assert !tL.isEmpty();
-        String listContent = "";
-        for (int i = 0; i < tL.size(); i++) {
-            listContent += String.format("%d.%s\n", (i + 1), tL.get(i));
+        StringBuilder listContent = new StringBuilder(estimateCapacity(tL.size()));
+        appendPage(listContent, 1, tL.size());
+        return listContent.toString();
+    }
+
+    /**
+     * Lists one page of the tasks in this task list, followed by a page footer if there is more than one page
+     * @param page One-based page number
+     * @param pageSize Number of tasks on each page
+     * @return String of the tasks on the page
+     */
+    public String listTasks(int page, int pageSize) {
+        int size = tL.size();
+        int start = (page - 1) * pageSize;
+        StringBuilder listContent = new StringBuilder(estimateCapacity(Math.min(pageSize, size - start)));
+        appendPage(listContent, page, pageSize);
+        int pageCount = (size + pageSize - 1) / pageSize;
+        if (pageCount > 1) {
+            listContent.append("Page ").append(page).append(" of ").append(pageCount)
+                .append(". The rest wait their turn behind 'list [page] [size]'.\n");
+        }
+        return listContent.toString();
+    }
+
+    /**
+     * Appends the numbered tasks on the given page
+     * Only the tasks on the page are visited, so the cost does not depend on the size of the ledger.
+     * The page is read in one step, so it stays whole even if another command changes the list meanwhile.
+     * @param out Builder the page is written into
+     * @param page One-based page number
+     * @param pageSize Number of tasks on each page
+     */
+    public void appendPage(StringBuilder out, int page, int pageSize) {
+        int start = (page - 1) * pageSize;
+        List<Task> tasks = tL.getTasks(start, start + pageSize);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            out.append(start + i + 1).append('.').append(task).append(" (").append(ID_PREFIX).append(task.getId())
+                .append(")\n");
         }
-        return listContent;
     }
 
     /**
@@ -74,121 +148,149 @@ public class CommandRunner {
      * @return String of all content in list
      */
     public static String listTasks(List<Task> l) {
-        String listContent = "";
-        for (int i = 0; i < l.size(); i++) {
-            listContent += String.format("%s\n", l.get(i));
+        StringBuilder listContent = new StringBuilder(estimateCapacity(l.size()));
+        for (Task task : l) {
+            listContent.append(task).append(" (").append(ID_PREFIX).append(task.getId()).append(")\n");
         }
-        return listContent;
+        return listContent.toString();
     }
 
     /**
-     * Executes the command inputted by the user
-     * Retrieves details needed from caseVars
-     * @param command Command derived from the user input
-     * @param details String array of details derived from the user input
-     * @return Output message of the commands
+     * Estimates the capacity a builder needs for the given number of task lines, capped so that a large
+     * count never allocates more than a bounded buffer up front
      */
-    public String run(String command, String[] details) {
-        String resultString = "";
-        if (command.equals("list")) {
-            return listTasks();
-        }
-
-        if (command.equals("help") && details.length == 0) {
-            return displayAllHelp();
-        }
-
-        switch (command) {
-        case "mark":
-            assert !tL.isEmpty();
-            resultString = markTask(Integer.parseInt(details[0]) - 1);
-            break;
-
-        case "unmark":
-            assert !tL.isEmpty();
-            resultString = unmarkTask(Integer.parseInt(details[0]) - 1);
-            break;
-
-        case "todo":
-            resultString = createTodo(details);
-            break;
+    private static int estimateCapacity(int lineCount) {
+        return Math.max(0, Math.min(lineCount, MAX_PRESIZED_LINES)) * ESTIMATED_LINE_LENGTH;
+    }
 
-        case "deadline":
-            resultString = createDeadline(details);
-            break;
+    String listPage(ParsedCommand command) {
+        return listTasks(command.getPage(), command.getPageSize());
+    }
 
-        case "event":
-            resultString = createEvent(details);
-            break;
+    private String formatTaskMessage(Task task, String message) {
+        return String.format(message, task.toString(), tL.size());
+    }
 
-        case "delete":
-            assert !tL.isEmpty();
-            resultString = deleteTask(Integer.parseInt(details[0]) - 1);
-            break;
+    /**
+     * Checks whether a target picks out a group of tasks rather than a single one
+     * @param target Details of a mark, unmark or delete command joined back together
+     */
+    static boolean isSelection(String target) {
+        return RANGE_PATTERN.matcher(target).matches()
+            || target.equals(MARKED_SELECTOR)
+            || target.equals(UNMARKED_SELECTOR)
+            || target.equals(FIND_SELECTOR)
+            || target.startsWith(FIND_SELECTOR + " ");
+    }
 
-        case "find":
-            assert !tL.isEmpty();
-            resultString = findTask(details);
-            break;
+    /**
+     * Finds the tasks picked out by a selection
+     * @param command A validated index range, or a "done", "undone" or "find [keyword]" selector
+     * @return Zero-based indexes of the selected tasks, in ascending order
+     * @throws AftonException If the selector picks out no tasks
+     */
+    int[] selectTasks(ParsedCommand command) throws AftonException {
+        if (command.isRange()) {
+            int[] indexes = new int[command.getRangeEnd() - command.getRangeStart() + 1];
+            for (int k = 0; k < indexes.length; k++) {
+                indexes[k] = command.getRangeStart() + k;
+            }
+            return indexes;
+        }
+        String target = command.getText();
+        int[] indexes;
+        if (target.equals(MARKED_SELECTOR) || target.equals(UNMARKED_SELECTOR)) {
+            boolean isMarked = target.equals(MARKED_SELECTOR);
+            List<Task> tasks = tL.getTasks();
+            indexes = new int[tasks.size()];
+            int count = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).isMarked() == isMarked) {
+                    indexes[count++] = i;
+                }
+            }
+            indexes = Arrays.copyOf(indexes, count);
+        } else {
+            List<Task> results = tL.findTasks(target.substring(FIND_SELECTOR.length()).trim().toLowerCase());
+            indexes = results.stream().mapToInt(task -> tL.indexOfId(task.getId())).toArray();
+        }
+        if (indexes.length == 0) {
+            throw new AftonException("Nothing answers to '" + target + "'. You're commanding an empty room."
+                + "\n[HINT]: Use 'list' or 'find' to see which tasks you can select.");
+        }
+        return indexes;
+    }
 
-        case "help":
-            resultString = displayHelp(details[0]);
-            break;
+    String markTargets(ParsedCommand command) throws AftonException {
+        if (command.getIndex() >= 0) {
+            return markTask(command.getIndex());
+        }
+        int[] indexes = selectTasks(command);
+        tL.markAll(indexes);
+        storageFile.logMarkAll(tL, indexes);
+        return "Done. " + indexes.length + " records silenced in one stroke. They all belong to the past now.\n";
+    }
 
-        default:
-            listTasks();
-            break;
+    String unmarkTargets(ParsedCommand command) throws AftonException {
+        if (command.getIndex() >= 0) {
+            return unmarkTask(command.getIndex());
         }
-        return resultString;
+        int[] indexes = selectTasks(command);
+        tL.unmarkAll(indexes);
+        storageFile.logUnmarkAll(tL, indexes);
+        return "Back again? " + indexes.length + " records dragged out of the dark at once."
+            + " Some things just won't stay buried.\n";
     }
 
-    private static String formatTaskMessage(Task task, String message) {
-        return String.format(message, task.toString(), tL.size());
+    String deleteTargets(ParsedCommand command) throws AftonException {
+        if (command.getIndex() >= 0) {
+            return deleteTask(command.getIndex());
+        }
+        int[] indexes = selectTasks(command);
+        tL.removeAll(indexes);
+        storageFile.logDeleteAll(tL, indexes);
+        String delMessage = (tL.size() == 0)
+            ? "The room is empty. Silence at last... but for how long?\n"
+            : "There are " + tL.size() + " souls left to manage. We aren't finished yet.\n";
+        return "Erased " + indexes.length + " of them at once. No one will even know they existed.\n" + delMessage;
     }
 
-    private static String markTask(int index) {
+    String markTask(int index) {
+        tL.mark(index);
         Task mTask = tL.get(index);
-        mTask.mark();
-        storageFile.storeTL(tL);
+        storageFile.logMark(tL, index);
         return "Done. It's finally... over. For now.\n" + mTask + "\n";
     }
 
-    private static String unmarkTask(int index) {
+    String unmarkTask(int index) {
+        tL.unmark(index);
         Task umTask = tL.get(index);
-        umTask.unmark();
-        storageFile.storeTL(tL);
+        storageFile.logUnmark(tL, index);
         return "Back again? It seems some things just won't stay buried.\n" + umTask + "\n";
     }
 
-    private static String createTodo(String[] details) {
-        String taskName = details[0];
-        Task td = new ToDo(taskName);
+    String createTodo(ParsedCommand command) {
+        Task td = new ToDo(command.getText());
         tL.addTask(td);
-        storageFile.storeTL(tL);
+        storageFile.logAdd(tL, td);
         return formatTaskMessage(td, TODO_ADD_MESSAGE);
     }
 
-    private static String createDeadline(String[] details) {
-        String taskName = details[0];
-        Task dlTask = new Deadline(taskName, LocalDateTime.parse(details[1]
-            .replace("/by", "").trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+    String createDeadline(ParsedCommand command) {
+        Task dlTask = new Deadline(command.getText(), command.getEnd());
         tL.addTask(dlTask);
-        storageFile.storeTL(tL);
+        storageFile.logAdd(tL, dlTask);
         return formatTaskMessage(dlTask, DEADLINE_ADD_MESSAGE);
     }
 
-    private static String createEvent(String[] details) {
-        String taskName = details[0];
-        Task evTask = new Event(taskName, LocalDateTime.parse(details[1]
-            .replace("/from", "").trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-            LocalDateTime.parse(details[2]
-            .replace("/to", "").trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+    String createEvent(ParsedCommand command) {
+        Task evTask = new Event(command.getText(), command.getStart(), command.getEnd());
         tL.addTask(evTask);
-        storageFile.storeTL(tL);
+        storageFile.logAdd(tL, evTask);
         return formatTaskMessage(evTask, EVENT_ADD_MESSAGE);
     }
 
-    private static String deleteTask(int index) {
+    String deleteTask(int index) {
         Task delTask = tL.get(index);
         tL.remove(index);
         String resultString = "Erased. A pity... I was starting to like that one."
@@ -198,13 +300,12 @@ public class CommandRunner {
             ? "The room is empty. Silence at last... but for how long?\n"
             : "There are " + tL.size() + " souls left to manage. We aren't finished yet.\n";
         resultString += delMessage;
-        storageFile.storeTL(tL);
+        storageFile.logDelete(tL, index);
         return resultString;
     }
 
-    private static String findTask(String[] details) {
-        String searchTerm = details[0].toLowerCase();
-        List<Task> results = tL.findTasks(searchTerm);
+    String findTask(ParsedCommand command) {
+        List<Task> results = tL.findTasks(command.getText());
         String resultString = "";
         if (results.isEmpty()) {
             resultString = "A fruitless search. "
@@ -221,7 +322,45 @@ public class CommandRunner {
         return resultString;
     }
 
-    private static String displayHelp(String command) {
+    String findDue(ParsedCommand command) {
+        List<Task> results = tL.findDeadlines(command.getStart(), command.getEnd());
+        if (results.isEmpty()) {
+            return "No clocks are ticking in that window. Enjoy the quiet... while it lasts.\n";
+        }
+        return "These are the clocks ticking closest to midnight.\n" + listTasks(results);
+    }
+
+    String findOn(ParsedCommand command) {
+        List<Task> deadlines = tL.findDeadlines(command.getStart(), command.getEnd());
+        List<Task> events = tL.findEvents(command.getStart(), command.getEnd());
+        if (deadlines.isEmpty() && events.isEmpty()) {
+            return "Nothing is scheduled for then. An empty stage... how unsettling.\n";
+        }
+        return "Every clock and every act on the programme for that night.\n"
+            + listTasks(deadlines) + listTasks(events);
+    }
+
+    String exportTasks(ParsedCommand command) throws AftonException {
+        storageFile.exportText(tL, command.getText());
+        return "Every one of the " + tL.size() + " records, copied to " + command.getText()
+            + ". Keep it somewhere safe... or don't.\n";
+    }
+
+    String importTasks(ParsedCommand command) throws AftonException {
+        int count = storageFile.importText(command.getText(), tL);
+        return count + " more souls dragged in from " + command.getText() + ". "
+            + tL.size() + " entries fill my ledger now.\n";
+    }
+
+    static String displayStats(Metrics metrics) {
+        return "Every gear of the machine, timed. Something in here is slowing down...\n" + metrics.report();
+    }
+
+    static String sayGoodbye() {
+        return "Don't think this is over... I always come back.\n";
+    }
+
+    static String displayHelp(String command) {
         String resultString = "";
         switch (command) {
         case "list":
@@ -245,9 +384,24 @@ public class CommandRunner {
         case "find":
             resultString = FIND_HELP_MESSAGE;
             break;
+        case "due":
+            resultString = DUE_HELP_MESSAGE;
+            break;
+        case "on":
+            resultString = ON_HELP_MESSAGE;
+            break;
         case "delete":
             resultString = DELETE_HELP_MESSAGE;
             break;
+        case "export":
+            resultString = EXPORT_HELP_MESSAGE;
+            break;
+        case "import":
+            resultString = IMPORT_HELP_MESSAGE;
+            break;
+        case "stats":
+            resultString = STATS_HELP_MESSAGE;
+            break;
         case "help":
             resultString = HELP_HELP_MESSAGE;
             break;
@@ -260,7 +414,7 @@ public class CommandRunner {
         return resultString;
     }
 
-    private static String displayAllHelp() {
+    static String displayAllHelp() {
         return LIST_HELP_MESSAGE
             + TODO_HELP_MESSAGE + "\n"
             + DEADLINE_HELP_MESSAGE + "\n"
@@ -268,7 +422,12 @@ public class CommandRunner {
             + MARK_HELP_MESSAGE + "\n"
             + UNMARK_HELP_MESSAGE + "\n"
             + FIND_HELP_MESSAGE + "\n"
+            + DUE_HELP_MESSAGE + "\n"
+            + ON_HELP_MESSAGE + "\n"
             + DELETE_HELP_MESSAGE + "\n"
+            + EXPORT_HELP_MESSAGE + "\n"
+            + IMPORT_HELP_MESSAGE + "\n"
+            + STATS_HELP_MESSAGE + "\n"
             + HELP_HELP_MESSAGE + "\n"
             + BYE_HELP_MESSAGE;
     }
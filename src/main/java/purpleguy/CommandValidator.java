@@ -1,138 +1,90 @@
 package purpleguy;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.LocalTime;
+import java.time.Year;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import purpleguy.exception.AftonException;
+import purpleguy.exception.ValidationError;
 import purpleguy.tasklist.TaskList;
 
 /**
  * Validates the commands inputted by the user
+ * Each command in the CommandRegistry calls the checks it needs before it runs.
+ * Checks which convert a detail, such as a time or an index, hand the converted value on in a ParsedCommand.
+ * A rejected input comes back as a ParsedCommand holding a ValidationError instead of as an exception,
+ * and numbers and times are read by hand rather than by parsers which throw, so a rejection costs no more
+ * than an accepted input.
  */
 public class CommandValidator {
-    private static final String ERROR_MISSING_BY_VALUE = "A tag with no data? You're stalling."
-                + " Tell me *when* the clock stops."
-                + "\n[HINT]: Provide the timing details immediately after the /by tag";
-    private static final String ERROR_MISSING_FROM_VALUE = "The stage is set, but the actors have no cues for /from."
-                + " Provide a time, or the curtains stay closed."
-                + "\n[HINT]: Provide the timing details immediately after the /from tag";
-    private static final String ERROR_MISSING_TO_VALUE = "You've started the performance,"
-                + " but left the ending in a void."
-                + " Tell me when /to finish it"
-                + "\n[HINT]: Provide the timing details immediately after the /to tag";
-    private static final String ERROR_TIME_WRONG_FORMAT = "Your grasp of time is... messy."
-                + " I don't operate on 'soon' or 'later'."
-                + " Give me a format that holds weight in my ledger, or the record will be lost to the void."
-                + "\n[HINT]: Time Format: yyyy-MM-dd HH:mm (e.g., 2026-10-31 23:59)";
-
-    /**
-     * Validates input given by the user
-     * @param command Command derived from the user input
-     * @param details String array of details derived from the user input
-     * @param tL ArrayList of Tasks, the current taskList
-     * @throws AftonException If input is invalid: Missing tag/task name, improper tag/command usage
-     */
-    public void validate(String command, String[] details, TaskList tL) throws AftonException {
-        if (!isKnownCommand(command)) {
-            throw new AftonException("'" + command + "'? I don't recognize that. Don't waste my time with nonsense. "
-                + "\n[HINT]: Use 'help' to view the full list of valid commands.");
-        }
-        // Resolving list first as it is the only command
-        // which does not require extra parameters
-        if (command.equals("list")) {
-            validateList(details, tL.isEmpty());
-            return;
+    private static final Pattern PAGE_ARGUMENTS_PATTERN = Pattern.compile("[1-9]\\d{0,8}(\\s+[1-9]\\d{0,8})?");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPAN_PATTERN = Pattern.compile("[1-9]\\d{0,5}[hHdD]");
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+    // Longest run of digits read as a number; anything longer is rejected like any other non-number
+    private static final int MAX_DIGITS = 18;
+
+    static ParsedCommand validateList(String[] details, TaskList tL) {
+        String pageArgs = String.join(" ", details).trim();
+        if (details.length > 0 && !PAGE_ARGUMENTS_PATTERN.matcher(pageArgs).matches()) {
+            return ParsedCommand.rejected(ValidationError.LIST_EXTRA_DETAILS);
         }
-
-        // This is to let allHelp pass the default case
-        // Validation for the normal help is done later
-        if (command.equals("help") && details.length == 0) {
-            return;
-        }
-
-        // Command missing essential information
-        validateMissingInfo(details, command);
-
-        if (command.equals("find")) {
-            validateFind(tL.isEmpty());
-            return;
+        if (tL.isEmpty()) {
+            return ParsedCommand.rejected(ValidationError.NOTHING_TO_ACT_ON, "list");
         }
-
-        switch (command) {
-        case "todo":
-            // Todo command inputted with /by, /from or /to
-            if (details.length > 1) {
-                throw new AftonException("A simple task shouldn't have extra baggage."
-                    + " Keep it clean... like a well-wiped crime scene."
-                    + "\n[HINT]: Todo tasks do not use /by, /from, or /to tags.");
-            }
-            break;
-
-        case "deadline":
-            validateDeadline(details);
-            break;
-
-        case "event":
-            validateEvent(details);
-            break;
-
-        case "mark":
-            // Fallthrough
-            // Mark unmark and delete go through the same validation process
-        case "unmark":
-            // Fallthrough
-        case "delete":
-            validateIndex(details, command, tL);
-            break;
-        case "help":
-            validateHelp(details[0]);
-            break;
-        // Any other unrecognised command
-        default:
-            throw new AftonException("'" + command + "'? I don't recognize that. Don't waste my time with nonsense. "
-                + "\n[HINT]: I only respond to: todo, deadline, event, list, find, mark, unmark, or delete.");
+        if (details.length == 0) {
+            return ParsedCommand.ofPage(1, Math.min(tL.size(), CommandRunner.DEFAULT_PAGE_SIZE));
         }
-
-    }
-
-    private static boolean isKnownCommand(String command) {
-        return List.of("todo", "deadline", "event", "list", "mark", "unmark", "find", "delete", "help", "bye")
-        .contains(command);
-    }
-
-    private static void validateList(String[] details, boolean isEmpty) throws AftonException {
-        if (details.length > 0) {
-            throw new AftonException("Do you think I'm blind? "
-                                    + "I don't need your 'extra information' to view my own ledger. "
-                                    + "Just say the word and be quiet."
-                                    + "\n[HINT]: The 'list' command requires no additional words.");
+        String[] pageNumbers = WHITESPACE.split(pageArgs);
+        int page = Integer.parseInt(pageNumbers[0]);
+        int pageSize = pageNumbers.length > 1 ? Integer.parseInt(pageNumbers[1]) : CommandRunner.DEFAULT_PAGE_SIZE;
+        if (pageSize > CommandRunner.MAX_PAGE_SIZE) {
+            return ParsedCommand.rejected(ValidationError.PAGE_SIZE_TOO_LARGE, CommandRunner.MAX_PAGE_SIZE);
         }
-        if (isEmpty) {
-            throw new AftonException("There is nothing here to silence. You haven't even started your work. "
-                                    + "\n[HINT]: Add a task before trying to list");
+        int pageCount = (int) ((tL.size() + (long) pageSize - 1) / pageSize);
+        if (page > pageCount) {
+            return ParsedCommand.rejected(ValidationError.PAGE_OUT_OF_RANGE, pageCount);
         }
+        return ParsedCommand.ofPage(page, pageSize);
     }
 
-    private static void validateMissingInfo(String[] details, String command) throws AftonException {
+    /**
+     * Checks that a command which needs details was given some
+     * @param details String array of details derived from the user input
+     * @param command Command derived from the user input
+     * @return A rejection if the task name or index is missing, otherwise ParsedCommand.EMPTY
+     */
+    static ParsedCommand validateMissingInfo(String[] details, String command) {
         if (details.length < 1 || details[0].trim().isEmpty() || details[0].startsWith("/")) {
             // More specific error message for missing index rather than missing name
             if (command.equals("mark") || command.equals("unmark") || command.equals("delete")) {
-                throw new AftonException("You're pointing at thin air. Give me a number, or step away. "
-                                    + "\n[HINT]: Usage: " + command + " [task index number]");
+                return ParsedCommand.rejected(ValidationError.MISSING_INDEX, command);
+            }
+            if (command.equals("due") || command.equals("on")) {
+                return ParsedCommand.rejected(ValidationError.MISSING_SPAN);
             }
-            throw new AftonException("A hollow entry? Much like those empty suits, "
-                                + "it's useless without...something inside. Give it a name."
-                                + "\n[HINT]: Try: " + command + " [description] ...");
+            return ParsedCommand.rejected(ValidationError.MISSING_NAME, command);
         }
+        return ParsedCommand.EMPTY;
     }
 
-    private static void validateFind(boolean isEmpty) throws AftonException {
-        if (isEmpty) {
-            throw new AftonException("You're hunting for shadows in an empty room. "
-                    + "There is nothing here to find... yet."
-                    + "\n[HINT]: Add a task before you attempt to find it");
+    /**
+     * Checks that an export or import names a file, which may start with '/' unlike other details
+     * @param details Details of the command, which are joined back together into the path
+     * @param command Name of the command
+     */
+    static ParsedCommand validateFilePath(String[] details, String command) {
+        if (details.length < 1 || details[0].trim().isEmpty()) {
+            return ParsedCommand.rejected(ValidationError.MISSING_FILE_PATH, command);
         }
+        return ParsedCommand.ofText(String.join(" ", details));
+    }
+
+    static ParsedCommand validateFind(boolean isEmpty) {
+        return isEmpty ? ParsedCommand.rejected(ValidationError.NOTHING_TO_FIND) : ParsedCommand.EMPTY;
     }
 
     private static int countTags(String[] details, String tag) {
@@ -158,118 +110,275 @@ public class CommandValidator {
         return index;
     }
 
-    private static void validateTagContent(String[] details, int index,
-        String tag, String errorMessage) throws AftonException {
-        if (details[index].trim().equals(tag)) {
-            throw new AftonException(errorMessage);
-        }
+    private static boolean isTagEmpty(String[] details, int index, String tag) {
+        return details[index].trim().equals(tag);
     }
 
-    private static LocalDateTime validateDate(String dateString, String tag) throws AftonException {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            return LocalDateTime.parse(dateString.replace(tag, "").trim(), formatter);
-        } catch (Exception e) {
-            throw new AftonException(ERROR_TIME_WRONG_FORMAT);
+    /**
+     * Reads the time following a tag
+     * @return The time, or null if it does not follow the yyyy-MM-dd HH:mm format
+     */
+    private static LocalDateTime readTime(String dateString, String tag) {
+        String value = dateString.trim();
+        if (value.startsWith(tag)) {
+            value = value.substring(tag.length()).trim();
         }
+        return parseDateTime(value);
+    }
 
+    static ParsedCommand validateTodo(String[] details) {
+        // Todo command inputted with /by, /from or /to
+        if (details.length > 1) {
+            return ParsedCommand.rejected(ValidationError.TODO_WITH_TAGS);
+        }
+        return ParsedCommand.ofTask(details[0], null, null);
     }
 
-    private static void validateDeadline(String[] details) throws AftonException {
+    static ParsedCommand validateDeadline(String[] details) {
         int noOfBy = countTags(details, "/by");
         int noOfFrom = countTags(details, "/from");
         int noOfTo = countTags(details, "/to");
 
         if (noOfFrom > 0 || noOfTo > 0) {
-            throw new AftonException("You're confusing a deadline with an event."
-                + " Only one end matters here."
-                + "\n[HINT]: Remove /from and /to. Only use /by.");
+            return ParsedCommand.rejected(ValidationError.DEADLINE_WITH_EVENT_TAGS);
         }
-
         if (noOfBy == 0) {
-            throw new AftonException("How disappointing. You forgot the '/by' tag."
-                + " Precision is the difference between a masterpiece and a... mess."
-                + "\n[HINT]: A deadline requires a '/by [time]' marker.");
+            return ParsedCommand.rejected(ValidationError.DEADLINE_MISSING_BY);
         }
         if (noOfBy > 1) {
-            throw new AftonException("Too many endings? Even I only needed one."
-                + " One /by is enough."
-                + "\n[HINT]: Ensure you only have one '/by' tag.");
+            return ParsedCommand.rejected(ValidationError.DEADLINE_REPEATED_BY);
         }
 
         int byIndex = 1;
-        validateTagContent(details, byIndex, "/by", ERROR_MISSING_BY_VALUE);
-
-        validateDate(details[1], "/by");
+        if (isTagEmpty(details, byIndex, "/by")) {
+            return ParsedCommand.rejected(ValidationError.MISSING_BY_VALUE);
+        }
+        LocalDateTime by = readTime(details[byIndex], "/by");
+        if (by == null) {
+            return ParsedCommand.rejected(ValidationError.TIME_WRONG_FORMAT);
+        }
+        return ParsedCommand.ofTask(details[0], null, by);
     }
 
-    private static void validateEvent(String[] details) throws AftonException {
+    static ParsedCommand validateEvent(String[] details) {
         int noOfBy = countTags(details, "/by");
-
         if (noOfBy > 0) {
-            throw new AftonException("Events don't have deadlines; they have schedules. Lose the /by tag."
-                + "\n[HINT]: Replace '/by' with '/from' and '/to'.");
+            return ParsedCommand.rejected(ValidationError.EVENT_WITH_BY);
         }
 
         int noOfFrom = countTags(details, "/from");
         int noOfTo = countTags(details, "/to");
-
         if (noOfFrom != 1 || noOfTo != 1) {
-            throw new AftonException("The stage is set, but the timing is incomplete."
-                + " I require exactly one start and one end."
-                + "\n[HINT]: Ensure you have exactly one '/from' and one '/to' tag.");
+            return ParsedCommand.rejected(ValidationError.EVENT_TAG_COUNT);
         }
 
         int fromIdx = getTagIndex(details, "/from");
         int toIdx = getTagIndex(details, "/to");
-
         if (toIdx < fromIdx) {
-            throw new AftonException("You're trying to end the show before the curtains even rise?"
-                + " Order is everything."
-                + "\n[HINT]: Place the '/from' tag before the '/to' tag.");
+            return ParsedCommand.rejected(ValidationError.EVENT_TAG_ORDER);
+        }
+        if (isTagEmpty(details, fromIdx, "/from")) {
+            return ParsedCommand.rejected(ValidationError.MISSING_FROM_VALUE);
+        }
+        if (isTagEmpty(details, toIdx, "/to")) {
+            return ParsedCommand.rejected(ValidationError.MISSING_TO_VALUE);
         }
 
-        validateTagContent(details, fromIdx, "/from", ERROR_MISSING_FROM_VALUE);
-        validateTagContent(details, toIdx, "/to", ERROR_MISSING_TO_VALUE);
-
-        LocalDateTime fromTime = validateDate(details[1], "/from");
-        LocalDateTime toTime = validateDate(details[2], "/to");
+        LocalDateTime fromTime = readTime(details[1], "/from");
+        LocalDateTime toTime = fromTime == null ? null : readTime(details[2], "/to");
+        if (toTime == null) {
+            return ParsedCommand.rejected(ValidationError.TIME_WRONG_FORMAT);
+        }
         if (fromTime.isAfter(toTime)) {
-            throw new AftonException("Time is a linear path, not a circle for you to wander. "
-                + "You're trying to end an event before it even begins... "
-                + "such a sloppy paradox. Fix the record, or I'll leave it to rot."
-                + "\n[HINT]: The /from time must be before the /to time");
+            return ParsedCommand.rejected(ValidationError.EVENT_ENDS_BEFORE_START);
         }
         if (fromTime.isEqual(toTime)) {
-            throw new AftonException("An event with no duration? How pointless. "
-                + "Even a moment of agony has a beginning and an end."
-                + "\n[HINT]: The /from time and /to time cannot be the same");
+            return ParsedCommand.rejected(ValidationError.EVENT_WITHOUT_DURATION);
         }
+        return ParsedCommand.ofTask(details[0], fromTime, toTime);
     }
 
-    private static void validateIndex(String[] details, String command, TaskList tL) throws AftonException {
+    /**
+     * Validates the target of a mark, unmark or delete command
+     * The target is either a single index or ID, or a selector: an index range, "done", "undone" or "find [keyword]".
+     */
+    static ParsedCommand validateTarget(String[] details, String command, TaskList tL) {
+        String target = String.join(" ", details).trim();
+        if (!CommandRunner.isSelection(target)) {
+            return validateIndex(details, command, tL);
+        }
         if (tL.isEmpty()) {
-            throw new AftonException("There is nothing here to silence. You haven't even started your work. "
-                + "\n[HINT]: Add a task before trying to " + command);
-        }
-        try {
-            int index = Integer.parseInt(details[0]);
-            if (index < 1 || index > tL.size()) {
-                throw new AftonException("Are you seeing ghosts? That record doesn't exist. Stay within the count."
-                    + "\n[HINT]: Enter a number between 1 and " + tL.size() + ".");
+            return ParsedCommand.rejected(ValidationError.NOTHING_TO_ACT_ON, command);
+        }
+        Matcher range = CommandRunner.RANGE_PATTERN.matcher(target);
+        if (range.matches()) {
+            int from = Integer.parseInt(range.group(1));
+            int to = Integer.parseInt(range.group(2));
+            if (from > to || to > tL.size()) {
+                return ParsedCommand.rejected(ValidationError.RANGE_OUT_OF_BOUNDS, tL.size());
             }
-        } catch (NumberFormatException e) {
-            throw new AftonException("'" + details[0] + "' is not a number."
-                + "I require mathematical precision, not guesswork."
-                + "\n[HINT]: Provide a valid integer index.");
+            return ParsedCommand.ofRange(from - 1, to - 1);
+        }
+        if (target.equals(CommandRunner.FIND_SELECTOR)) {
+            return ParsedCommand.rejected(ValidationError.MISSING_FIND_KEYWORD, command);
         }
+        return ParsedCommand.ofText(target);
     }
 
-    private static void validateHelp(String command) throws AftonException {
-        if (!isKnownCommand(command)) {
-            throw new AftonException("Are you trying to find a secret door? There is no such command in my ledger."
-                + " Stick to the protocols I gave you, or don't speak at all."
-                + "\n[HINT]: For a list of all valid commands try inputting 'help' only");
+    /**
+     * Validates a reference to a single task, given as a one-based list index or as an ID following ID_PREFIX
+     * @return A command holding the zero-based index of the task
+     */
+    static ParsedCommand validateIndex(String[] details, String command, TaskList tL) {
+        if (tL.isEmpty()) {
+            return ParsedCommand.rejected(ValidationError.NOTHING_TO_ACT_ON, command);
+        }
+        String target = details[0];
+        if (target.startsWith(CommandRunner.ID_PREFIX)) {
+            return validateId(target, tL);
+        }
+        long index = parseNumber(target);
+        if (index == NOT_A_NUMBER || index != (int) index) {
+            return ParsedCommand.rejected(ValidationError.NOT_A_NUMBER, target);
+        }
+        if (index < 1 || index > tL.size()) {
+            return ParsedCommand.rejected(ValidationError.INDEX_OUT_OF_BOUNDS, tL.size());
+        }
+        return ParsedCommand.ofIndex((int) index - 1);
+    }
+
+    private static ParsedCommand validateId(String target, TaskList tL) {
+        long id = parseNumber(target.substring(CommandRunner.ID_PREFIX.length()));
+        if (id == NOT_A_NUMBER) {
+            return ParsedCommand.rejected(ValidationError.NOT_AN_ID, target);
+        }
+        int index = tL.indexOfId(id);
+        if (index < 0) {
+            return ParsedCommand.rejected(ValidationError.ID_NOT_FOUND, target);
+        }
+        return ParsedCommand.ofIndex(index);
+    }
+
+    /**
+     * Validates the span of a due command
+     * @return The window from now until the end of the span
+     */
+    static ParsedCommand validateDue(String[] details) {
+        String span = details[0];
+        if (details.length > 1 || !SPAN_PATTERN.matcher(span).matches()) {
+            return ParsedCommand.rejected(ValidationError.SPAN_WRONG_FORMAT, span);
+        }
+        int amount = Integer.parseInt(span.substring(0, span.length() - 1));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = Character.toLowerCase(span.charAt(span.length() - 1)) == 'h'
+            ? now.plusHours(amount)
+            : now.plusDays(amount);
+        return ParsedCommand.ofWindow(now, until);
+    }
+
+    static ParsedCommand validateOn(String[] details) {
+        if (details.length == 1) {
+            LocalDate day = parseDate(details[0].trim());
+            if (day == null) {
+                return ParsedCommand.rejected(ValidationError.DAY_WRONG_FORMAT);
+            }
+            return ParsedCommand.ofWindow(day.atStartOfDay(), day.atTime(LocalTime.MAX));
+        }
+        if (details.length > 2 || !details[1].trim().startsWith("/to")) {
+            return ParsedCommand.rejected(ValidationError.DAY_WRONG_FORMAT);
+        }
+        if (isTagEmpty(details, 1, "/to")) {
+            return ParsedCommand.rejected(ValidationError.MISSING_TO_VALUE);
+        }
+        LocalDateTime fromTime = readTime(details[0], "");
+        LocalDateTime toTime = fromTime == null ? null : readTime(details[1], "/to");
+        if (toTime == null) {
+            return ParsedCommand.rejected(ValidationError.TIME_WRONG_FORMAT);
+        }
+        if (fromTime.isAfter(toTime)) {
+            return ParsedCommand.rejected(ValidationError.WINDOW_ENDS_BEFORE_START);
+        }
+        return ParsedCommand.ofWindow(fromTime, toTime);
+    }
+
+    static ParsedCommand validateHelp(String command, Set<String> knownCommands) {
+        if (!knownCommands.contains(command)) {
+            return ParsedCommand.rejected(ValidationError.UNKNOWN_HELP_TOPIC);
+        }
+        return ParsedCommand.ofText(command);
+    }
+
+    /**
+     * Reads a whole number with an optional sign
+     * @return The number, or NOT_A_NUMBER if the text is not one
+     */
+    private static long parseNumber(String s) {
+        int start = s.startsWith("-") || s.startsWith("+") ? 1 : 0;
+        int length = s.length() - start;
+        if (length < 1 || length > MAX_DIGITS) {
+            return NOT_A_NUMBER;
+        }
+        long value = readDigits(s, start, s.length());
+        if (value < 0) {
+            return NOT_A_NUMBER;
+        }
+        return s.charAt(0) == '-' ? -value : value;
+    }
+
+    /**
+     * Reads a time in the yyyy-MM-dd HH:mm format
+     * As with the resolver the format used to go through, a day past the end of its month means the last day.
+     * @return The time, or null if the text does not follow the format
+     */
+    private static LocalDateTime parseDateTime(String s) {
+        if (s.length() != 16 || s.charAt(10) != ' ' || s.charAt(13) != ':') {
+            return null;
+        }
+        int hour = (int) readDigits(s, 11, 13);
+        int minute = (int) readDigits(s, 14, 16);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+        int year = (int) readDigits(s, 0, 4);
+        int month = (int) readDigits(s, 5, 7);
+        int day = (int) readDigits(s, 8, 10);
+        if (s.charAt(4) != '-' || s.charAt(7) != '-' || year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int lastDay = LocalDate.of(year, month, 1).lengthOfMonth();
+        return LocalDateTime.of(year, month, Math.min(day, lastDay), hour, minute);
+    }
+
+    /**
+     * Reads a date in the yyyy-MM-dd format
+     * @return The date, or null if the text does not follow the format or names a day that does not exist
+     */
+    private static LocalDate parseDate(String s) {
+        if (s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return null;
+        }
+        int year = (int) readDigits(s, 0, 4);
+        int month = (int) readDigits(s, 5, 7);
+        int day = (int) readDigits(s, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Year.of(year).atMonth(month).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Reads the digits between two positions
+     * @return The number they spell, or -1 if any of them is not a digit
+     */
+    private static long readDigits(String s, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
         }
+        return value;
     }
 }
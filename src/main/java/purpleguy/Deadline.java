@@ -1,6 +1,5 @@
 package purpleguy;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Contains the details of a task with a completion status and a deadline.
@@ -18,15 +17,23 @@ public class Deadline extends Task {
         this.deadline = deadline;
     }
 
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    protected Task copy() {
+        return new Deadline(getName(), deadline);
+    }
+
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: "
-            + deadline.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")) + ")";
+    protected String renderString() {
+        return "[D]" + super.renderString() + " (by: "
+            + deadline.format(DATE_FORMATTER) + ")";
     }
 
     @Override
-    public String toData() {
-        return String.format("D | %s | %s", super.toData(), deadline.format(
-            DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")));
+    protected String renderData() {
+        return "D | " + super.renderData() + " | " + deadline.format(DATE_FORMATTER);
     }
 }
@@ -1,54 +1,85 @@
 package purpleguy;
 
-import java.io.IOException;
-import java.util.Collections;
-
 import javafx.animation.TranslateTransition;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.util.Duration;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * The nodes are built in code rather than loaded from FXML, since a dialog box is created for every message.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    static final double AVATAR_SIZE = 99.0;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    /**
+     * Creates an empty dialog box which can be filled, and refilled, with {@link #show}
+     * @param stylesheet URL of the dialog box stylesheet, shared by every dialog box
+     */
+    DialogBox(String stylesheet) {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setPadding(new Insets(6.0));
+        HBox.setMargin(dialog, new Insets(25.0, 7.0, 0, 7.0));
 
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        displayPicture.setPreserveRatio(true);
+        displayPicture.setPickOnBounds(true);
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(400.0);
+        setPadding(new Insets(15.0, 5.0, 15.0, 5.0));
+        getStylesheets().add(stylesheet);
+        getChildren().setAll(dialog, displayPicture);
+    }
+
+    /**
+     * Fills the dialog box with a message, laying it out as a reply or as the user's own message
+     * @param text Text of the message
+     * @param img Face of the speaker
+     * @param isReply Whether the message is Afton's reply
+     */
+    void show(String text, Image img, boolean isReply) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        if (isReply) {
+            flip();
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+            dialog.getStyleClass().remove("reply-label");
+        }
     }
 
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
+        getChildren().setAll(displayPicture, dialog);
         setAlignment(Pos.TOP_LEFT);
-        dialog.getStyleClass().add("reply-label");
+        if (!dialog.getStyleClass().contains("reply-label")) {
+            dialog.getStyleClass().add("reply-label");
+        }
+    }
+
+    /**
+     * Plays the glitch effect on the whole dialog box
+     */
+    void glitch() {
+        applyGlitchEffect(this);
     }
 
     private void applyGlitchEffect(Node node) {
@@ -65,15 +96,4 @@ public class DialogBox extends HBox {
 
         tt.play();
     }
-
-    public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
-    }
-
-    public static DialogBox getAftonDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        db.applyGlitchEffect(db);
-        return db;
-    }
 }
@@ -0,0 +1,40 @@
+package purpleguy;
+
+import javafx.scene.image.Image;
+
+/**
+ * Creates the dialog boxes shown in the transcript.
+ * The avatars are decoded once, already scaled down to the size they are displayed at,
+ * and every dialog box shares them along with the same stylesheet.
+ */
+public class DialogFactory {
+    private static final String USER_IMAGE_PATH = "/images/user_fredbear.jpg";
+    private static final String AFTON_IMAGE_PATH = "/images/purpleguy.png";
+    private static final String STYLESHEET_PATH = "/css/dialog-box.css";
+
+    private final Image userImage = loadAvatar(USER_IMAGE_PATH);
+    private final Image aftonImage = loadAvatar(AFTON_IMAGE_PATH);
+    private final String stylesheet = DialogFactory.class.getResource(STYLESHEET_PATH).toExternalForm();
+
+    /**
+     * Creates an empty dialog box, to be filled with {@link #fill}
+     */
+    public DialogBox createDialog() {
+        return new DialogBox(stylesheet);
+    }
+
+    /**
+     * Fills an existing dialog box with a message and the matching avatar
+     * @param dialogBox Dialog box to fill
+     * @param text Text of the message
+     * @param isReply Whether the message is Afton's reply
+     */
+    public void fill(DialogBox dialogBox, String text, boolean isReply) {
+        dialogBox.show(text, isReply ? aftonImage : userImage, isReply);
+    }
+
+    private static Image loadAvatar(String path) {
+        return new Image(DialogFactory.class.getResourceAsStream(path),
+            DialogBox.AVATAR_SIZE, DialogBox.AVATAR_SIZE, true, true);
+    }
+}
@@ -1,7 +1,6 @@
 package purpleguy;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Contains a task with a completion status, a start time and an end time.
@@ -22,17 +21,28 @@ public class Event extends Task {
         this.end = end;
     }
 
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    protected Task copy() {
+        return new Event(getName(), start, end);
+    }
+
     @Override
-    public String toString() {
-        return String.format("[E]%s (from: %s to: %s)", super.toString(),
-        start.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")),
-        end.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")));
+    protected String renderString() {
+        return "[E]" + super.renderString() + " (from: " + start.format(DATE_FORMATTER)
+            + " to: " + end.format(DATE_FORMATTER) + ")";
     }
 
     @Override
-    public String toData() {
-        return String.format("E | %s | %s - %s", super.toData(),
-        start.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")),
-        end.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")));
+    protected String renderData() {
+        return "E | " + super.renderData() + " | " + start.format(DATE_FORMATTER)
+            + " - " + end.format(DATE_FORMATTER);
     }
 }
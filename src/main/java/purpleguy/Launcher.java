@@ -4,9 +4,14 @@ import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * Starting it with --script or --batch runs commands headlessly instead of opening the window.
  */
 public class Launcher {
     public static void main(String[] args) {
+        if (PurpleGuy.isBatchMode(args)) {
+            PurpleGuy.main(args);
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
@@ -14,20 +14,30 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     private PurpleGuy afton = new PurpleGuy();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
         try {
-            afton.initialiseTasklist();
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setTitle("PurpleGuy");
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setAfton(afton);
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setAfton(afton);
             stage.show();
+            mainWindow.loadTasks();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutDown();
+        }
+        afton.saveTasks();
+    }
 }
@@ -1,21 +1,28 @@
 package purpleguy;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    /** Number of messages kept in the transcript when the purpleguy.transcriptLimit property is not set */
+    public static final int DEFAULT_TRANSCRIPT_LIMIT = 500;
+    private static final String PENDING_REPLY = "...";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<TranscriptEntry> transcript;
     @FXML
     private TextField userInput;
     @FXML
@@ -23,22 +30,32 @@ public class MainWindow extends AnchorPane {
 
     private PurpleGuy afton;
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/user_fredbear.jpg"));
-    private Image aftonImage = new Image(this.getClass().getResourceAsStream("/images/purpleguy.png"));
+    private final DialogFactory dialogFactory = new DialogFactory();
+
+    private final ObservableList<TranscriptEntry> entries = FXCollections.observableArrayList();
+    private final int transcriptLimit = Math.max(2, Integer.getInteger("purpleguy.transcriptLimit",
+        DEFAULT_TRANSCRIPT_LIMIT));
+    // A single worker runs the commands one at a time, in the order they were entered
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purpleguy-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Initialises the app with Afton's starting dialogues
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcript.setItems(entries);
+        transcript.setCellFactory(list -> new TranscriptCell(list, dialogFactory));
+        transcript.setFocusTraversable(false);
         userInput.setPromptText("Speak with Afton:");
-        dialogContainer.getChildren().add(
-            DialogBox.getAftonDialog(("You look... familiar. Have we met at the Pizzeria?\n"
+        append(new TranscriptEntry("You look... familiar. Have we met at the Pizzeria?\n"
             + "I'm William. But I suppose you have your own names for me.\n"
             + "Tell me... why are you really here?\n\n"
             + "Cat got your tongue? If you find yourself lost in the dark, just scream for 'help'."
-            + " I might decide to show you the way out."), aftonImage));
+            + " I might decide to show you the way out.", true));
     }
 
     /** Injects the Afton instance */
@@ -47,20 +64,74 @@ public class MainWindow extends AnchorPane {
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Afton's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Loads the ledger in the background, showing how far a large load has got in the transcript
+     * Loading runs on the command worker, so commands entered in the meantime wait until every task is loaded.
+     */
+    public void loadTasks() {
+        TranscriptEntry[] progressEntry = new TranscriptEntry[1];
+        commandExecutor.execute(() -> afton.initialiseTasklist(linesRead -> Platform.runLater(() -> {
+            TranscriptEntry entry = new TranscriptEntry(PurpleGuy.describeLoadProgress(linesRead), true);
+            int index = progressEntry[0] == null ? -1 : entries.indexOf(progressEntry[0]);
+            if (index < 0) {
+                append(entry);
+            } else {
+                // Only the first progress message glitches, not every update of it
+                entry.consumeGlitch();
+                entries.set(index, entry);
+            }
+            progressEntry[0] = entry;
+        })));
+    }
+
+    /**
+     * Adds the user input to the transcript with a pending reply and clears the user input.
+     * The command runs in the background, and its reply replaces the pending one once it is done.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = afton.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getAftonDialog(response, aftonImage)
-        );
-        if (input.toLowerCase().equals("bye")) {
+        TranscriptEntry pendingReply = new TranscriptEntry(PENDING_REPLY, true);
+        append(new TranscriptEntry(input, false), pendingReply);
+        userInput.clear();
+        commandExecutor.execute(() -> {
+            String response = afton.getResponse(input);
+            Platform.runLater(() -> showReply(pendingReply, response, input.toLowerCase().equals("bye")));
+        });
+    }
+
+    /**
+     * Waits for the commands still queued to finish
+     * Called when the app is closing, before the tasks are saved.
+     */
+    public void shutDown() {
+        commandExecutor.shutdown();
+        try {
+            commandExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void showReply(TranscriptEntry pendingReply, String response, boolean isGoodbye) {
+        int index = entries.indexOf(pendingReply);
+        if (index >= 0) {
+            entries.set(index, new TranscriptEntry(response, true));
+        }
+        if (isGoodbye) {
             Platform.exit();
         }
-        userInput.clear();
+    }
+
+    /**
+     * Appends messages to the transcript, dropping the oldest ones past the transcript limit,
+     * and scrolls to the newest message
+     */
+    private void append(TranscriptEntry... newEntries) {
+        entries.addAll(newEntries);
+        int excess = entries.size() - transcriptLimit;
+        if (excess > 0) {
+            entries.remove(0, excess);
+        }
+        transcript.scrollTo(entries.size() - 1);
     }
 }
@@ -0,0 +1,163 @@
+package purpleguy;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import purpleguy.exception.ValidationError;
+
+/**
+ * A command whose details have been validated and converted, so the CommandRunner can carry it out
+ * without splitting or parsing any of them again, or the reason it was rejected.
+ * Each kind of command only sets the fields it needs; the others are null, or -1 for numbers.
+ */
+public final class ParsedCommand {
+    private static final Object[] NO_ARGS = new Object[0];
+    /** Result of validating a command that takes no details */
+    public static final ParsedCommand EMPTY = new ParsedCommand(null, null, null, -1, -1, -1, -1, -1);
+
+    private final String text;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int index;
+    private final int rangeStart;
+    private final int rangeEnd;
+    private final int page;
+    private final int pageSize;
+    private final ValidationError error;
+    private final Object[] errorArgs;
+
+    private ParsedCommand(String text, LocalDateTime start, LocalDateTime end, int index,
+            int rangeStart, int rangeEnd, int page, int pageSize) {
+        this(text, start, end, index, rangeStart, rangeEnd, page, pageSize, null, NO_ARGS);
+    }
+
+    private ParsedCommand(String text, LocalDateTime start, LocalDateTime end, int index,
+            int rangeStart, int rangeEnd, int page, int pageSize, ValidationError error, Object[] errorArgs) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.index = index;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.error = error;
+        this.errorArgs = errorArgs;
+    }
+
+    /**
+     * Creates a command which adds a task
+     * @param name Name of the task
+     * @param start Start time of an Event, or null
+     * @param end Deadline of a Deadline or end time of an Event, or null for a ToDo
+     */
+    public static ParsedCommand ofTask(String name, LocalDateTime start, LocalDateTime end) {
+        return new ParsedCommand(name, start, end, -1, -1, -1, -1, -1);
+    }
+
+    /**
+     * Creates a command which acts on every task falling within a time window
+     */
+    public static ParsedCommand ofWindow(LocalDateTime start, LocalDateTime end) {
+        return new ParsedCommand(null, start, end, -1, -1, -1, -1, -1);
+    }
+
+    /**
+     * Creates a command which acts on the task at a zero-based index
+     */
+    public static ParsedCommand ofIndex(int index) {
+        return new ParsedCommand(null, null, null, index, -1, -1, -1, -1);
+    }
+
+    /**
+     * Creates a command which acts on the tasks between two zero-based indexes, both inclusive
+     */
+    public static ParsedCommand ofRange(int rangeStart, int rangeEnd) {
+        return new ParsedCommand(null, null, null, -1, rangeStart, rangeEnd, -1, -1);
+    }
+
+    /**
+     * Creates a command which carries a single piece of text, such as a search keyword, selector or command name
+     */
+    public static ParsedCommand ofText(String text) {
+        return new ParsedCommand(text, null, null, -1, -1, -1, -1, -1);
+    }
+
+    /**
+     * Creates a command which shows one page of the taskList
+     * @param page One-based page number
+     * @param pageSize Number of tasks on each page
+     */
+    public static ParsedCommand ofPage(int page, int pageSize) {
+        return new ParsedCommand(null, null, null, -1, -1, -1, page, pageSize);
+    }
+
+    /**
+     * Creates the result of an input which failed validation
+     * @param error Reason the input was rejected
+     * @param errorArgs Details filling in the error's message
+     */
+    public static ParsedCommand rejected(ValidationError error, Object... errorArgs) {
+        return new ParsedCommand(null, null, null, -1, -1, -1, -1, -1, error, errorArgs);
+    }
+
+    /**
+     * Runs the next check if this one passed
+     * @param next Check to run on success
+     * @return This rejection, or the result of the next check
+     */
+    public ParsedCommand then(Supplier<ParsedCommand> next) {
+        return isRejected() ? this : next.get();
+    }
+
+    public boolean isRejected() {
+        return error != null;
+    }
+
+    public ValidationError getError() {
+        return error;
+    }
+
+    /**
+     * Builds the in-character message explaining why the input was rejected
+     */
+    public String getErrorMessage() {
+        return error.format(errorArgs);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isRange() {
+        return rangeStart >= 0;
+    }
+
+    public int getRangeStart() {
+        return rangeStart;
+    }
+
+    public int getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -1,8 +1,23 @@
 package purpleguy;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.LongConsumer;
+
 import purpleguy.exception.AftonException;
+import purpleguy.metrics.Metrics;
+import purpleguy.metrics.MetricsDumper;
 import purpleguy.parser.Parser;
+import purpleguy.storage.PersistenceScheduler;
 import purpleguy.storage.Storage;
+import purpleguy.tasklist.ColumnarTaskList;
+import purpleguy.tasklist.LazyTaskList;
+import purpleguy.tasklist.ObjectTaskList;
 import purpleguy.tasklist.TaskList;
 import purpleguy.ui.AftonUI;
 
@@ -11,17 +26,85 @@ import purpleguy.ui.AftonUI;
  * Implements CRUD functionality for various types of tasks.
  */
 public class PurpleGuy {
-    private static AftonUI afton = new AftonUI();
-    private static Storage storageFile = new Storage();
-    private static TaskList taskList = new TaskList();
+    public static final String SCRIPT_OPTION = "--script";
+    public static final String BATCH_OPTION = "--batch";
+
+    /** System property naming the file the ledger is kept in, used when no path is given */
+    public static final String STORAGE_FILE_PROPERTY = "purpleguy.storageFile";
+
+    private final AftonUI afton = new AftonUI();
+    private final Storage storageFile;
+    private final TaskList taskList;
+    private final Metrics metrics = new Metrics();
+    private final PersistenceScheduler scheduler;
+    private final MetricsDumper metricsDumper;
+    private final Parser parser;
+    private volatile boolean isInitialised;
+
+    /**
+     * Creates a ledger kept in the file named by the purpleguy.storageFile system property,
+     * or in the default storage file if it is not set
+     */
+    public PurpleGuy() {
+        this(System.getProperty(STORAGE_FILE_PROPERTY, Storage.getDefaultFilePath()));
+    }
+
+    /**
+     * Creates a ledger kept in the given file
+     * Each ledger has its own taskList, storage and metrics, so ledgers kept in different files can be
+     * used side by side in one process.
+     * @param filePath Path of the ledger's storage file
+     */
+    public PurpleGuy(String filePath) {
+        this(filePath, PersistenceScheduler.sharedFlusher());
+    }
+
+    /**
+     * Creates a ledger kept in the given file, whose changes are committed on the given executor
+     * Ledgers given the same executor share its thread, however many of them are open.
+     * @param filePath Path of the ledger's storage file
+     * @param flusher Executor the ledger's storage changes are committed on
+     */
+    public PurpleGuy(String filePath, ScheduledExecutorService flusher) {
+        // Setting the purpleguy.lazyLoad system property decodes tasks as they are needed, which needs paged storage
+        boolean isLazy = Boolean.getBoolean("purpleguy.lazyLoad");
+        storageFile = new Storage(filePath, true, Storage.DEFAULT_COMPACTION_THRESHOLD, chooseFormat(isLazy));
+        // Setting the purpleguy.columnar system property keeps tasks in primitive columns for a much smaller heap
+        taskList = Boolean.getBoolean("purpleguy.columnar") ? new ColumnarTaskList()
+            : isLazy ? new LazyTaskList()
+            : new ObjectTaskList();
+        scheduler = createScheduler(flusher);
+        metricsDumper = createMetricsDumper();
+        parser = new Parser(taskList, storageFile, metrics);
+    }
+
+    /**
+     * Chooses the format snapshots are written in
+     * Setting the purpleguy.pagedStorage system property lets each save rewrite only the pages that changed,
+     * and setting purpleguy.binaryStorage writes compact binary snapshots instead of text.
+     */
+    private static Storage.Format chooseFormat(boolean isLazy) {
+        if (isLazy || Boolean.getBoolean("purpleguy.pagedStorage")) {
+            return Storage.Format.PAGED;
+        }
+        return Boolean.getBoolean("purpleguy.binaryStorage") ? Storage.Format.BINARY : Storage.Format.TEXT;
+    }
 
     public static void main(String[] args) {
-        try {
-            storageFile.readTL(taskList);
-        } catch (Exception e) {
-            afton.speak(e.getMessage());
+        new PurpleGuy().run(args);
+    }
+
+    /**
+     * Loads the ledger and talks to the user through the console until they say bye,
+     * or runs the commands given by --script or --batch instead
+     * @param args Command line arguments
+     */
+    public void run(String[] args) {
+        initialiseTasklist();
+        if (isBatchMode(args)) {
+            runBatch(args);
+            return;
         }
-        Parser p = new Parser(taskList);
         afton.initialise();
         String userInput = afton.readInput();
         while (!userInput.equals("bye")) {
@@ -31,31 +114,92 @@ public class PurpleGuy {
                         + " Speak, or stay out of my wires."
                         + "\n[HINT]: Type a valid command (list, todo, deadline, event, mark, unmark).");
                 }
-                afton.speak(p.parse(userInput));
+                afton.speak(parser.parse(userInput));
             } catch (AftonException e) {
                 afton.speak(e.getMessage());
             }
             userInput = afton.readInput();
         }
         afton.shutDown();
+        scheduler.shutDown();
         storageFile.storeTL(taskList);
+        dumpMetrics();
     }
 
     /**
-     * Initialises the tasklist with Task data from the text file
+     * Checks whether the program was started to run a script or piped commands instead of a conversation
+     * @param args Command line arguments
+     */
+    public static boolean isBatchMode(String[] args) {
+        return args.length > 0 && (args[0].equals(SCRIPT_OPTION) || args[0].equals(BATCH_OPTION));
+    }
+
+    /**
+     * Runs the commands from the script file named after --script, or from standard input with --batch,
+     * as a single batch and prints its summary
+     * @param args Command line arguments
+     */
+    private void runBatch(String[] args) {
+        BatchRunner runner = new BatchRunner(taskList, storageFile, parser);
+        try {
+            if (args[0].equals(SCRIPT_OPTION)) {
+                if (args.length < 2) {
+                    afton.speak("A script with no name? I can't run what I can't find."
+                        + "\n[HINT]: " + SCRIPT_OPTION + " <file>");
+                    return;
+                }
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+                    afton.speak(runner.run(reader));
+                }
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                afton.speak(runner.run(reader));
+            }
+        } catch (IOException e) {
+            afton.speak("I couldn't read those commands: " + e.getMessage());
+        } finally {
+            scheduler.shutDown();
+            dumpMetrics();
+        }
+    }
+
+    /**
+     * Initialises the tasklist with Task data from the text file, telling the console how far a large load has got
      */
     public void initialiseTasklist() {
+        initialiseTasklist(linesRead -> afton.speak(describeLoadProgress(linesRead)));
+    }
+
+    /**
+     * Initialises the tasklist with Task data from the text file
+     * A LazyTaskList returns once the index is read and decodes the rest of its tasks in the background.
+     * @param progressListener Told how many lines of a large text ledger have been read so far
+     */
+    public void initialiseTasklist(LongConsumer progressListener) {
+        storageFile.setProgressListener(progressListener);
         try {
             storageFile.readTL(taskList);
+            if (taskList instanceof LazyTaskList) {
+                ((LazyTaskList) taskList).warmInBackground();
+            }
         } catch (Exception e) {
             afton.speak(e.getMessage());
         }
+        isInitialised = true;
+    }
+
+    /**
+     * Describes how much of the ledger has been loaded, for the progress of a large load
+     * @param linesRead Number of lines read so far
+     */
+    public static String describeLoadProgress(long linesRead) {
+        return "Dusting off the old records... " + linesRead + " lines so far.";
     }
 
     public String getResponse(String input) {
-        Parser p = new Parser(taskList);
         if (input.equals("bye")) {
             afton.shutDown();
+            saveTasks();
         }
         try {
             if (input.trim().isEmpty()) {
@@ -63,9 +207,52 @@ public class PurpleGuy {
                     + " Speak, or stay out of my wires."
                     + "\n[HINT]: Type a valid command (list, todo, deadline, event, mark, unmark).");
             }
-            return p.parse(input);
+            return parser.parse(input);
         } catch (AftonException e) {
             return e.getMessage();
         }
     }
+
+    /**
+     * Commits every pending change to the storage file and folds the journal into the snapshot
+     * Called when the GUI is closed so that no mutation is left in the scheduler, and so the next start
+     * can read the snapshot without replaying a journal, which would decode every task of a LazyTaskList
+     * Nothing is stored if the ledger has not finished loading.
+     */
+    public void saveTasks() {
+        scheduler.flush();
+        // A ledger closed while it is still loading would be saved over with only the tasks read so far
+        if (isInitialised) {
+            storageFile.storeTL(taskList);
+        }
+        dumpMetrics();
+    }
+
+    /**
+     * Creates the scheduler that commits storage changes in groups
+     * Setting the purpleguy.syncOnCommit system property makes every commit wait for the disk.
+     */
+    private PersistenceScheduler createScheduler(ScheduledExecutorService flusher) {
+        storageFile.setSyncOnCommit(Boolean.getBoolean("purpleguy.syncOnCommit"));
+        storageFile.setMetrics(metrics);
+        return new PersistenceScheduler(storageFile, taskList, flusher);
+    }
+
+    /**
+     * Starts dumping the metrics to the file named by the purpleguy.metricsFile system property, if it is set,
+     * every purpleguy.metricsInterval seconds (60 by default)
+     */
+    private MetricsDumper createMetricsDumper() {
+        String metricsFile = System.getProperty("purpleguy.metricsFile");
+        if (metricsFile == null) {
+            return null;
+        }
+        return new MetricsDumper(metrics, Paths.get(metricsFile), Long.getLong("purpleguy.metricsInterval", 60));
+    }
+
+    private void dumpMetrics() {
+        if (metricsDumper != null) {
+            metricsDumper.dump();
+        }
+    }
 }
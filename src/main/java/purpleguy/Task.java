@@ -1,14 +1,27 @@
 package purpleguy;
+
+import java.time.format.DateTimeFormatter;
+
 /**
  * Provides the blueprint for all Task-based children classes
  * Contains the details of a Task
+ * A task is rendered far more often than it changes, so its display and data strings are built once
+ * and kept until mark or unmark changes its status.
  */
 public class Task {
+    /** Format used to display and store the times of Deadline and Event tasks */
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+
     private String name;
-    private Boolean isMarked;
+    private String lowerCaseName;
+    private boolean isMarked;
+    private long id;
+    private String displayString;
+    private String dataString;
 
     protected Task(String name) {
         this.name = name;
+        this.lowerCaseName = name.toLowerCase();
         this.isMarked = false;
     }
 
@@ -17,6 +30,7 @@ public class Task {
      */
     public void mark() {
         this.isMarked = true;
+        clearRenderedStrings();
     }
 
     /**
@@ -24,6 +38,60 @@ public class Task {
      */
     public void unmark() {
         this.isMarked = false;
+        clearRenderedStrings();
+    }
+
+    private void clearRenderedStrings() {
+        displayString = null;
+        dataString = null;
+    }
+
+    /**
+     * Returns the ID given to this task by the TaskList holding it
+     * Unlike its position, a task's ID does not change when other tasks are deleted.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gives this task its ID; called by the TaskList when the task is added
+     * @param id Positive ID, unique within the list
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLowerCaseName() {
+        return lowerCaseName;
+    }
+
+    public boolean isMarked() {
+        return isMarked;
+    }
+
+    /**
+     * Returns a copy of this task with the given status, keeping its ID
+     * TaskLists change a task's status through a copy, so snapshots which still hold this task are unaffected.
+     * @param isMarked Status of the copy
+     * @return The copied task
+     */
+    public Task withStatus(boolean isMarked) {
+        Task copy = copy();
+        copy.isMarked = isMarked;
+        copy.id = id;
+        return copy;
+    }
+
+    /**
+     * Creates an unmarked task with the same details as this one
+     */
+    protected Task copy() {
+        return new Task(name);
     }
 
     /**
@@ -40,17 +108,45 @@ public class Task {
      * @return T/F based on if the substring is in the name
      */
     public boolean containsString(String s) {
-        return this.name.toLowerCase().contains(s);
+        return this.lowerCaseName.contains(s);
     }
 
     /**
      * Returns a formatted string containing the details of the task
      */
-    public String toString() {
-        return String.format("[%s] %s", this.getStatusString(), this.name);
+    @Override
+    public final String toString() {
+        String s = displayString;
+        if (s == null) {
+            s = renderString();
+            displayString = s;
+        }
+        return s;
+    }
+
+    /**
+     * Returns the line this task is stored as
+     */
+    public final String toData() {
+        String s = dataString;
+        if (s == null) {
+            s = renderData();
+            dataString = s;
+        }
+        return s;
     }
 
-    public String toData() {
-        return String.format("%s | %s", this.getStatusString(), this.name);
+    /**
+     * Builds the string returned by toString; each child class adds its own details to this one
+     */
+    protected String renderString() {
+        return "[" + getStatusString() + "] " + name;
+    }
+
+    /**
+     * Builds the string returned by toData; each child class adds its own details to this one
+     */
+    protected String renderData() {
+        return getStatusString() + " | " + name;
     }
 }
@@ -12,12 +12,17 @@ public class ToDo extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected Task copy() {
+        return new ToDo(getName());
     }
 
     @Override
-    public String toData() {
-        return "T | " + super.toData();
+    protected String renderString() {
+        return "[T]" + super.renderString();
+    }
+
+    @Override
+    protected String renderData() {
+        return "T | " + super.renderData();
     }
 }
@@ -0,0 +1,45 @@
+package purpleguy;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * ListView cell which shows a transcript entry in a single DialogBox.
+ * The ListView only creates enough cells to fill the window and refills them as the user scrolls,
+ * so the scene graph stays the same size however long the conversation gets.
+ */
+public class TranscriptCell extends ListCell<TranscriptEntry> {
+    private static final double SCROLL_BAR_ALLOWANCE = 20;
+
+    private final DialogFactory dialogFactory;
+    private final DialogBox dialogBox;
+
+    /**
+     * Creates a cell for the given transcript
+     * @param listView Transcript the cell belongs to, whose width the dialog box follows
+     * @param dialogFactory Factory holding the shared avatars and styling
+     */
+    public TranscriptCell(ListView<TranscriptEntry> listView, DialogFactory dialogFactory) {
+        this.dialogFactory = dialogFactory;
+        this.dialogBox = dialogFactory.createDialog();
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        // A zero preferred width stops long messages from widening the cell past the list
+        setPrefWidth(0);
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+    }
+
+    @Override
+    protected void updateItem(TranscriptEntry entry, boolean isEmpty) {
+        super.updateItem(entry, isEmpty);
+        if (isEmpty || entry == null) {
+            setGraphic(null);
+            return;
+        }
+        dialogFactory.fill(dialogBox, entry.getText(), entry.isReply());
+        setGraphic(dialogBox);
+        if (entry.consumeGlitch()) {
+            dialogBox.glitch();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package purpleguy;
+
+/**
+ * Represents a single message in the chat transcript, either from the user or from Afton.
+ */
+public class TranscriptEntry {
+    private final String text;
+    private final boolean isReply;
+    private boolean hasGlitched;
+
+    /**
+     * Creates a new transcript entry
+     * @param text Text of the message
+     * @param isReply Whether the message is Afton's reply
+     */
+    public TranscriptEntry(String text, boolean isReply) {
+        this.text = text;
+        this.isReply = isReply;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isReply() {
+        return isReply;
+    }
+
+    /**
+     * Checks whether the glitch effect is still owed to this entry and records it as played
+     * Replies only glitch the first time they are shown, not each time their cell is reused.
+     */
+    public boolean consumeGlitch() {
+        if (!isReply || hasGlitched) {
+            return false;
+        }
+        hasGlitched = true;
+        return true;
+    }
+}
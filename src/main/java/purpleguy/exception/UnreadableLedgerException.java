@@ -0,0 +1,13 @@
+package purpleguy.exception;
+
+/**
+ * Represents stored tasks which could not be decoded after a taskList was handed the ledger.
+ * TaskList methods are called from everywhere, so this is unchecked; commands report it as an AftonException.
+ */
+public class UnreadableLedgerException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UnreadableLedgerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,116 @@
+package purpleguy.exception;
+
+/**
+ * Every reason an input can be rejected, along with the message shown to the user.
+ * A rejection only carries one of these and its arguments; the message itself is built when it is shown,
+ * so inputs which are rejected without being shown cost no more than those which are accepted.
+ */
+public enum ValidationError {
+    RESERVED_SYMBOL("You're trying to wedge your own symbols into my architecture?"
+        + " Foolishness."
+        + "\n[HINT] Do not add the '|' symbol into your input"),
+    UNKNOWN_COMMAND("'%s'? I don't recognize that. Don't waste my time with nonsense. "
+        + "\n[HINT]: Use 'help' to view the full list of valid commands."),
+    LIST_EXTRA_DETAILS("Do you think I'm blind? "
+        + "I don't need your 'extra information' to view my own ledger. "
+        + "Just say the word and be quiet."
+        + "\n[HINT]: The 'list' command only takes a page number and a page size."),
+    NOTHING_TO_ACT_ON("There is nothing here to silence. You haven't even started your work. "
+        + "\n[HINT]: Add a task before trying to %s"),
+    PAGE_OUT_OF_RANGE("That page was torn out long ago... or it never existed."
+        + "\n[HINT]: Enter a page between 1 and %s."),
+    PAGE_SIZE_TOO_LARGE("Greedy, aren't we? No one reads that many names in one sitting."
+        + "\n[HINT]: Enter a page size between 1 and %s."),
+    MISSING_INDEX("You're pointing at thin air. Give me a number, or step away. "
+        + "\n[HINT]: Usage: %s [task index number]"),
+    MISSING_SPAN("When? Every clock needs a hand to point with. "
+        + "\n[HINT]: Usage: due [number]h, due [number]d or on yyyy-MM-dd"),
+    MISSING_NAME("A hollow entry? Much like those empty suits, "
+        + "it's useless without...something inside. Give it a name."
+        + "\n[HINT]: Try: %s [description] ..."),
+    NOTHING_TO_FIND("You're hunting for shadows in an empty room. "
+        + "There is nothing here to find... yet."
+        + "\n[HINT]: Add a task before you attempt to find it"),
+    MISSING_BY_VALUE("A tag with no data? You're stalling."
+        + " Tell me *when* the clock stops."
+        + "\n[HINT]: Provide the timing details immediately after the /by tag"),
+    MISSING_FROM_VALUE("The stage is set, but the actors have no cues for /from."
+        + " Provide a time, or the curtains stay closed."
+        + "\n[HINT]: Provide the timing details immediately after the /from tag"),
+    MISSING_TO_VALUE("You've started the performance,"
+        + " but left the ending in a void."
+        + " Tell me when /to finish it"
+        + "\n[HINT]: Provide the timing details immediately after the /to tag"),
+    TIME_WRONG_FORMAT("Your grasp of time is... messy."
+        + " I don't operate on 'soon' or 'later'."
+        + " Give me a format that holds weight in my ledger, or the record will be lost to the void."
+        + "\n[HINT]: Time Format: yyyy-MM-dd HH:mm (e.g., 2026-10-31 23:59)"),
+    DAY_WRONG_FORMAT("Which night are you asking about? Be precise."
+        + "\n[HINT]: Usage: on yyyy-MM-dd or on yyyy-MM-dd HH:mm /to yyyy-MM-dd HH:mm"),
+    TODO_WITH_TAGS("A simple task shouldn't have extra baggage."
+        + " Keep it clean... like a well-wiped crime scene."
+        + "\n[HINT]: Todo tasks do not use /by, /from, or /to tags."),
+    DEADLINE_WITH_EVENT_TAGS("You're confusing a deadline with an event."
+        + " Only one end matters here."
+        + "\n[HINT]: Remove /from and /to. Only use /by."),
+    DEADLINE_MISSING_BY("How disappointing. You forgot the '/by' tag."
+        + " Precision is the difference between a masterpiece and a... mess."
+        + "\n[HINT]: A deadline requires a '/by [time]' marker."),
+    DEADLINE_REPEATED_BY("Too many endings? Even I only needed one."
+        + " One /by is enough."
+        + "\n[HINT]: Ensure you only have one '/by' tag."),
+    EVENT_WITH_BY("Events don't have deadlines; they have schedules. Lose the /by tag."
+        + "\n[HINT]: Replace '/by' with '/from' and '/to'."),
+    EVENT_TAG_COUNT("The stage is set, but the timing is incomplete."
+        + " I require exactly one start and one end."
+        + "\n[HINT]: Ensure you have exactly one '/from' and one '/to' tag."),
+    EVENT_TAG_ORDER("You're trying to end the show before the curtains even rise?"
+        + " Order is everything."
+        + "\n[HINT]: Place the '/from' tag before the '/to' tag."),
+    EVENT_ENDS_BEFORE_START("Time is a linear path, not a circle for you to wander. "
+        + "You're trying to end an event before it even begins... "
+        + "such a sloppy paradox. Fix the record, or I'll leave it to rot."
+        + "\n[HINT]: The /from time must be before the /to time"),
+    EVENT_WITHOUT_DURATION("An event with no duration? How pointless. "
+        + "Even a moment of agony has a beginning and an end."
+        + "\n[HINT]: The /from time and /to time cannot be the same"),
+    RANGE_OUT_OF_BOUNDS("Are you seeing ghosts? Those records don't exist. Stay within the count."
+        + "\n[HINT]: Enter a range such as 1-%s, lowest number first."),
+    MISSING_FIND_KEYWORD("Find what? I can't round up shadows with no name."
+        + "\n[HINT]: Usage: %s find [keyword]"),
+    INDEX_OUT_OF_BOUNDS("Are you seeing ghosts? That record doesn't exist. Stay within the count."
+        + "\n[HINT]: Enter a number between 1 and %s."),
+    NOT_A_NUMBER("'%s' is not a number."
+        + "I require mathematical precision, not guesswork."
+        + "\n[HINT]: Provide a valid integer index."),
+    ID_NOT_FOUND("That name has been scratched out of my ledger. Nothing answers to "
+        + "%s anymore."
+        + "\n[HINT]: Use 'list' to see the IDs of the tasks that remain."),
+    NOT_AN_ID("'%s' is not an ID. I require mathematical precision, not guesswork."
+        + "\n[HINT]: Provide a task ID such as #12, or a plain list index."),
+    SPAN_WRONG_FORMAT("'%s'? That isn't a span of time I can count down. "
+        + "\n[HINT]: Usage: due [number]h or due [number]d (e.g., due 24h)"),
+    WINDOW_ENDS_BEFORE_START("Time is a linear path, not a circle for you to wander. "
+        + "\n[HINT]: The start of the window must come before the /to time"),
+    MISSING_FILE_PATH("Where? I can't haul records to or from nowhere."
+        + "\n[HINT]: Usage: %s [file]"),
+    UNKNOWN_HELP_TOPIC("Are you trying to find a secret door? There is no such command in my ledger."
+        + " Stick to the protocols I gave you, or don't speak at all."
+        + "\n[HINT]: For a list of all valid commands try inputting 'help' only"),
+    /** A command which passed validation but could not be carried out; its only argument is the full message */
+    COMMAND_FAILED("%s");
+
+    private final String template;
+
+    ValidationError(String template) {
+        this.template = template;
+    }
+
+    /**
+     * Builds the message shown to the user
+     * @param args Details of the rejected input, filling in the message in order
+     */
+    public String format(Object... args) {
+        return args.length == 0 ? template : String.format(template, args);
+    }
+}
@@ -0,0 +1,91 @@
+package purpleguy.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects a latency histogram for every stage a command passes through.
+ * Stages are named "<stage>" or "<stage>.<command>", e.g. "parse", "validate.todo", "execute.todo"
+ * or "storage.storeTL", so a slow run shows which stage regressed for which command.
+ * Quantities which are not latencies, such as the bytes written by storage, are kept as running totals.
+ */
+public class Metrics {
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Records how long a stage took
+     * @param stage Name of the stage
+     * @param startNanos Value of System.nanoTime() when the stage started
+     */
+    public void recordSince(String stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a latency against a stage
+     * @param stage Name of the stage
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(String stage, long nanos) {
+        histograms.computeIfAbsent(stage, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Adds an amount to a running total
+     * @param counter Name of the total
+     * @param amount Amount to add
+     */
+    public void count(String counter, long amount) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * Returns the histogram of a stage, or null if nothing has been recorded against it yet
+     */
+    public LatencyHistogram get(String stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * Returns the running total of a counter, or 0 if nothing has been added to it yet
+     */
+    public long getTotal(String counter) {
+        LongAdder total = counters.get(counter);
+        return total == null ? 0 : total.sum();
+    }
+
+    /**
+     * Renders a table of every stage: how often it ran, how many times a second on average since startup,
+     * and its mean, median, 90th, 99th percentile and worst latencies in microseconds,
+     * followed by the total of every counter
+     */
+    public String report() {
+        double uptimeSeconds = Math.max(1, System.nanoTime() - startTime) / NANOS_PER_SECOND;
+        StringBuilder out = new StringBuilder(String.format("%-24s %8s %9s %10s %10s %10s %10s %10s%n",
+            "stage", "count", "per sec", "mean us", "p50 us", "p90 us", "p99 us", "max us"));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            out.append(String.format("%-24s %8d %9.2f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                entry.getKey(), h.getCount(), h.getCount() / uptimeSeconds,
+                h.getMeanNanos() / NANOS_PER_MICRO,
+                h.getValueAtQuantile(0.5) / NANOS_PER_MICRO,
+                h.getValueAtQuantile(0.9) / NANOS_PER_MICRO,
+                h.getValueAtQuantile(0.99) / NANOS_PER_MICRO,
+                h.getMaxNanos() / NANOS_PER_MICRO));
+        }
+        if (!counters.isEmpty()) {
+            out.append(String.format("%n%-24s %14s%n", "counter", "total"));
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+                out.append(String.format("%-24s %14d%n", entry.getKey(), entry.getValue().sum()));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package purpleguy.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically overwrites a local file with the current metrics report, so the numbers
+ * of a long-running session can be read without going through the app.
+ */
+public class MetricsDumper {
+    private final Metrics metrics;
+    private final Path path;
+    private final ScheduledExecutorService dumper;
+
+    /**
+     * Starts dumping the metrics to a file
+     * @param metrics Metrics to report
+     * @param path File the report is written to
+     * @param intervalSeconds Seconds between two dumps
+     */
+    public MetricsDumper(Metrics metrics, Path path, long intervalSeconds) {
+        this.metrics = metrics;
+        this.path = path;
+        this.dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "purpleguy-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleWithFixedDelay(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the current report, replacing the previous one in a single step
+     */
+    public void dump() {
+        try {
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tempPath, "# " + LocalDateTime.now() + System.lineSeparator() + metrics.report(),
+                StandardCharsets.UTF_8);
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("An error has occurred: " + e.getMessage());
+        }
+    }
+}
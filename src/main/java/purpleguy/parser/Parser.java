@@ -1,27 +1,52 @@
 package purpleguy.parser;
 
-import purpleguy.CommandRunner;
-import purpleguy.CommandValidator;
+import java.util.regex.Pattern;
+
+import purpleguy.CommandRegistry;
+import purpleguy.ParsedCommand;
 import purpleguy.exception.AftonException;
+import purpleguy.exception.ValidationError;
+import purpleguy.metrics.Metrics;
+import purpleguy.storage.Storage;
 import purpleguy.tasklist.TaskList;
 
 /**
  * Parses the commands inputted by the user
  */
 public class Parser {
-    private static TaskList tL;
-    private final CommandValidator validator;
-    private final CommandRunner runner;
+    private static final Pattern COMMAND_SEPARATOR = Pattern.compile("\\s+");
+    private static final Pattern DETAIL_SEPARATOR = Pattern.compile("\s+(?=/)| ^\s+ | \s+");
+    private static final String[] NO_DETAILS = new String[0];
+
+    private final CommandRegistry registry;
+    private final Metrics metrics;
 
     /**
      * Creates a new Parser object
-     * @param ui AftonUI for printing out success and error messages
      * @param taskList ArrayList of Tasks, the current taskList
      */
     public Parser(TaskList taskList) {
-        tL = taskList;
-        validator = new CommandValidator();
-        runner = new CommandRunner(taskList);
+        this(taskList, new Storage());
+    }
+
+    /**
+     * Creates a new Parser object whose commands are persisted through the given storage
+     * @param taskList ArrayList of Tasks, the current taskList
+     * @param storage Storage that mutations are recorded to
+     */
+    public Parser(TaskList taskList, Storage storage) {
+        this(taskList, storage, new Metrics());
+    }
+
+    /**
+     * Creates a new Parser object which also records how long each stage of a command takes
+     * @param taskList ArrayList of Tasks, the current taskList
+     * @param storage Storage that mutations are recorded to
+     * @param metrics Metrics the timings are recorded to
+     */
+    public Parser(TaskList taskList, Storage storage, Metrics metrics) {
+        this.metrics = metrics;
+        registry = new CommandRegistry(taskList, storage, metrics);
     }
 
     /**
@@ -31,17 +56,36 @@ public class Parser {
      */
     public String parse(String input) throws AftonException {
         if (input.contains("|")) {
-            throw new AftonException("You're trying to wedge your own symbols into my architecture?"
-                + " Foolishness."
-                + "\n[HINT] Do not add the '|' symbol into your input"
-            );
+            throw new AftonException(ValidationError.RESERVED_SYMBOL.format());
+        }
+        long startTime = System.nanoTime();
+        String[] caseVars = COMMAND_SEPARATOR.split(input, 2); // To extract command
+        String[] details = toDetails(caseVars);
+        metrics.recordSince("parse", startTime);
+        return registry.execute(caseVars[0].toLowerCase(), details);
+    }
+
+    /**
+     * Parses and executes the input without throwing when it is rejected
+     * Used where inputs are counted rather than answered, so no message is built for a rejected input
+     * unless the caller asks the result for one.
+     * @param input String input to be parsed
+     * @return The validated command, or the reason it was rejected
+     */
+    public ParsedCommand tryParse(String input) {
+        if (input.contains("|")) {
+            return ParsedCommand.rejected(ValidationError.RESERVED_SYMBOL);
         }
-        String[] caseVars = input.split("\\s+", 2); // To extract command
-        String command = caseVars[0].toLowerCase();
-        String[] details = (caseVars.length < 2 || caseVars[1].trim().isEmpty())
-            ? new String[0]
-            : caseVars[1].trim().split("\s+(?=/)| ^\s+ | \s+");
-        validator.validate(command, details, tL);
-        return runner.run(command, details);
+        long startTime = System.nanoTime();
+        String[] caseVars = COMMAND_SEPARATOR.split(input, 2);
+        String[] details = toDetails(caseVars);
+        metrics.recordSince("parse", startTime);
+        return registry.tryExecute(caseVars[0].toLowerCase(), details);
+    }
+
+    private static String[] toDetails(String[] caseVars) {
+        return (caseVars.length < 2 || caseVars[1].trim().isEmpty())
+            ? NO_DETAILS
+            : DETAIL_SEPARATOR.split(caseVars[1].trim());
     }
 }
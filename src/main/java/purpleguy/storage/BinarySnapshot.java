@@ -0,0 +1,176 @@
+package purpleguy.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import purpleguy.Deadline;
+import purpleguy.Event;
+import purpleguy.Task;
+import purpleguy.ToDo;
+import purpleguy.exception.AftonException;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Reads and writes the compact binary snapshot of a taskList.
+ * Layout: header (magic, version, generation, next ID, task count, name count), the string table of names,
+ * then one record per task holding a type/mark byte, its ID, a name index and epoch-second timestamps.
+ * Snapshots of the legacy version, which hold no IDs, are still read, and their tasks numbered again from 1.
+ * Any bytes after the last record, such as the checksum trailer, are ignored when reading.
+ */
+class BinarySnapshot {
+    static final int MAGIC = 0x50475342; // "PGSB"
+    static final short VERSION = 2;
+    static final short LEGACY_VERSION = 1;
+
+    private static final byte TODO_TYPE = 0;
+    private static final byte DEADLINE_TYPE = 1;
+    private static final byte EVENT_TYPE = 2;
+    private static final byte TYPE_MASK = 0x03;
+    private static final byte MARKED_BIT = (byte) 0x80;
+
+    private BinarySnapshot() {}
+
+    /**
+     * Checks whether the file at the given path starts with the binary snapshot magic number
+     * @param path File to check
+     * @return T/F based on if the file is a binary snapshot
+     */
+    static boolean isBinary(Path path) throws IOException {
+        return SnapshotFile.startsWith(path, MAGIC);
+    }
+
+    /**
+     * Writes the given tasks as a binary snapshot
+     * @param stream Stream to write to, left open afterwards
+     * @param tasks Tasks to store, in order
+     * @param nextId ID the next added task will be given
+     * @param generation Journal generation the snapshot includes
+     */
+    static void write(OutputStream stream, List<Task> tasks, long nextId, long generation) throws IOException {
+        Map<String, Integer> nameIndices = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] taskNameIndices = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            String name = tasks.get(i).getName();
+            Integer index = nameIndices.get(name);
+            if (index == null) {
+                index = names.size();
+                nameIndices.put(name, index);
+                names.add(name);
+            }
+            taskNameIndices[i] = index;
+        }
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(generation);
+        out.writeLong(nextId);
+        out.writeInt(tasks.size());
+        out.writeInt(names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            writeTask(out, tasks.get(i), taskNameIndices[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Loads every task in a binary snapshot into the taskList through a memory-mapped buffer, keeping its stored ID
+     * @param path Snapshot to read
+     * @param tL The current taskList
+     * @return The journal generation the snapshot includes
+     * @throws AftonException If the snapshot is truncated or malformed
+     */
+    static long read(Path path, TaskList tL) throws IOException, AftonException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = buffer.getInt();
+            short version = buffer.getShort();
+            if (magic != MAGIC || (version != VERSION && version != LEGACY_VERSION)) {
+                throw new AftonException("Someone messed with my files...");
+            }
+            boolean hasIds = version == VERSION;
+            long generation = buffer.getLong();
+            long nextId = hasIds ? buffer.getLong() : 0;
+            int taskCount = buffer.getInt();
+            String[] names = new String[buffer.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            for (int i = 0; i < taskCount; i++) {
+                tL.restoreTask(readTask(buffer, names, hasIds));
+            }
+            tL.restoreNextId(nextId);
+            return generation;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new AftonException("Someone messed with my files...");
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task, int nameIndex) throws IOException {
+        byte markBit = task.isMarked() ? MARKED_BIT : 0;
+        byte type = task instanceof Deadline ? DEADLINE_TYPE : task instanceof Event ? EVENT_TYPE : TODO_TYPE;
+        out.writeByte(type | markBit);
+        out.writeLong(task.getId());
+        out.writeInt(nameIndex);
+        if (task instanceof Deadline) {
+            out.writeLong(toEpochSecond(((Deadline) task).getDeadline()));
+        } else if (task instanceof Event) {
+            out.writeLong(toEpochSecond(((Event) task).getStart()));
+            out.writeLong(toEpochSecond(((Event) task).getEnd()));
+        }
+    }
+
+    private static Task readTask(MappedByteBuffer buffer, String[] names, boolean hasId) throws AftonException {
+        byte flags = buffer.get();
+        long id = hasId ? buffer.getLong() : 0;
+        String name = names[buffer.getInt()];
+        Task t;
+        switch (flags & TYPE_MASK) {
+        case TODO_TYPE:
+            t = new ToDo(name);
+            break;
+        case DEADLINE_TYPE:
+            t = new Deadline(name, fromEpochSecond(buffer.getLong()));
+            break;
+        case EVENT_TYPE:
+            t = new Event(name, fromEpochSecond(buffer.getLong()), fromEpochSecond(buffer.getLong()));
+            break;
+        default:
+            throw new AftonException("Someone messed with my files...");
+        }
+        if ((flags & MARKED_BIT) != 0) {
+            t.mark();
+        }
+        t.setId(id);
+        return t;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
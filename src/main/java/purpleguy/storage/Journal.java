@@ -0,0 +1,164 @@
+package purpleguy.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of task mutations which is replayed on top of the snapshot.
+ * The first line of every journal holds its generation, so that a snapshot knows which journals it already contains.
+ */
+class Journal {
+    static final String GENERATION_HEADER = "#gen ";
+
+    private final Path path;
+    private final long generation;
+    private FileOutputStream out;
+    private BufferedWriter writer;
+    private long size;
+
+    private Journal(Path path, long generation, long size) throws IOException {
+        this.path = path;
+        this.generation = generation;
+        this.size = size;
+        this.out = new FileOutputStream(path.toFile(), true);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates an empty journal at the given path, replacing any existing one
+     * @param path Location of the journal
+     * @param generation Generation written into the journal header
+     * @return The opened journal
+     */
+    static Journal create(Path path, long generation) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        String header = GENERATION_HEADER + generation + System.lineSeparator();
+        Files.writeString(path, header, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        return new Journal(path, generation, header.length());
+    }
+
+    /**
+     * Opens an existing journal so that new records are appended after the ones already in it
+     * @param path Location of the journal
+     * @return The opened journal
+     */
+    static Journal resume(Path path) throws IOException {
+        return new Journal(path, readGeneration(path), Files.size(path));
+    }
+
+    /**
+     * Reads the generation stored in the header of a journal or snapshot
+     * @param path File to read
+     * @return The generation, or -1 if the file does not exist or has no header
+     */
+    static long readGeneration(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return -1;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !firstLine.startsWith(GENERATION_HEADER)) {
+                return -1;
+            }
+            return Long.parseLong(firstLine.substring(GENERATION_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads every record in a journal, skipping the header
+     * @param path Journal to read
+     * @return The records in the order they were appended
+     */
+    static List<String> readRecords(Path path) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#") && !line.isEmpty()) {
+                    records.add(line);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Appends a single record to the end of the journal
+     * The record is buffered until the next {@link #flush(boolean)}.
+     * @param record The encoded mutation
+     */
+    void append(String record) throws IOException {
+        writer.write(record);
+        writer.newLine();
+        size += encodedLength(record) + System.lineSeparator().length();
+    }
+
+    /**
+     * Counts the bytes the record takes up in the journal's UTF-8 encoding, without encoding it a second time
+     */
+    static int encodedLength(String record) {
+        int length = record.length();
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c >= 0x800) {
+                // A surrogate pair takes 4 bytes, which its two chars already account for 2 + 2 of
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Hands every buffered record to the operating system
+     * @param isSync Whether to also wait until the records have reached the disk
+     */
+    void flush(boolean isSync) throws IOException {
+        writer.flush();
+        if (isSync) {
+            out.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Moves this journal aside and starts a fresh one of the next generation in its place
+     * @param rotatedPath Where the current journal is moved to
+     * @param newGeneration Generation of the fresh journal
+     * @return The fresh journal
+     */
+    Journal rotate(Path rotatedPath, long newGeneration) throws IOException {
+        close();
+        Files.move(path, rotatedPath, StandardCopyOption.REPLACE_EXISTING);
+        return create(path, newGeneration);
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            out = null;
+        }
+    }
+}
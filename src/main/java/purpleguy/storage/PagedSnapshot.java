@@ -0,0 +1,670 @@
+package purpleguy.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import purpleguy.Task;
+import purpleguy.exception.AftonException;
+import purpleguy.exception.UnreadableLedgerException;
+import purpleguy.metrics.Metrics;
+import purpleguy.tasklist.LazyTaskList;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Reads and writes the paged snapshot of a taskList, which can be brought up to date without rewriting it.
+ * Layout: the file is split into slots of PAGE_SIZE bytes. Slot 0 holds two copies of the header (magic, version,
+ * page size, header sequence number, generation, and the location, length and checksum of the footer), one at its
+ * start and one halfway through. Every other slot holds part of a page or of the index footer. A page is a run
+ * of tasks stored as text lines led by their IDs, taking one slot, or as many as a single oversized task needs.
+ * The footer lists every page in order with its slots, task count, length and checksum, followed by the ID the
+ * next added task will be given.
+ * An update writes only the pages whose tasks changed, and a new footer, into slots the current footer does not
+ * use, then writes a header pointing at the new footer over the older of the two copies. Reading takes the copy
+ * with the highest sequence number which passes its checksum, so a crash before or while the header is written
+ * leaves the previous snapshot readable.
+ * Since the footer alone gives the number of tasks, a LazyTaskList can be handed the ledger once the header and
+ * footer are read, and each page is only decoded when the taskList first reaches it.
+ */
+class PagedSnapshot {
+    static final int MAGIC = 0x50475350; // "PGSP"
+    static final short VERSION = 3;
+    /** Version whose lines and footer hold no IDs; such a file is still read, and written afresh on the next save */
+    static final short LEGACY_VERSION = 2;
+    static final int PAGE_SIZE = 4096;
+
+    // magic, version, page size, sequence, generation, footer slot, footer slot count, footer length, footer checksum
+    private static final int HEADER_BODY_LENGTH = Integer.BYTES + Short.BYTES + Integer.BYTES + 2 * Long.BYTES
+        + 4 * Integer.BYTES;
+    private static final int HEADER_LENGTH = HEADER_BODY_LENGTH + Integer.BYTES;
+    // The copies sit in different disk sectors, so a torn write of one leaves the other whole
+    private static final int HEADER_COPY_OFFSET = PAGE_SIZE / 2;
+    // slot, slot count, task count, length, checksum
+    private static final int FOOTER_ENTRY_LENGTH = 5 * Integer.BYTES;
+    // Once deletes leave the pages less than half full on average, the file is written afresh
+    private static final int MIN_FILL_PERCENT = 50;
+    private static final int MIN_SLOTS_TO_REPACK = 8;
+
+    private final Path path;
+    /** Pages of the file as it was last read or written by this object, or null if it has not been yet */
+    private List<Page> pages;
+    /** Pages listed in the footer which have not been decoded yet, in order */
+    private Deque<Page> pendingPages = new ArrayDeque<>();
+    /** Channel pages are decoded through while a lazily read taskList still has some waiting */
+    private FileChannel lazyChannel;
+    private BitSet usedSlots;
+    private int footerSlot;
+    private int footerSlotCount;
+    private int footerLength;
+    private int footerChecksum;
+    /** ID the next added task will be given, as the current footer holds it */
+    private long nextId;
+    private boolean isLegacy;
+    /** Sequence number of the newest header, and which of the two copies holds it */
+    private long headerSequence;
+    private int headerCopy;
+
+    PagedSnapshot(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Checks whether the file at the given path starts with the paged snapshot magic number
+     * @param path File to check
+     * @return T/F based on if the file is a paged snapshot
+     */
+    static boolean isPaged(Path path) throws IOException {
+        return SnapshotFile.startsWith(path, MAGIC);
+    }
+
+    /**
+     * Loads every task in the snapshot into the taskList, remembering which page each of them came from
+     * @param tL The current taskList
+     * @return The journal generation the snapshot includes
+     * @throws AftonException If the snapshot is truncated, malformed or fails its checksums
+     */
+    synchronized long read(TaskList tL) throws IOException, AftonException {
+        closeLazyChannel();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long generation = readIndex(channel);
+            while (!pendingPages.isEmpty()) {
+                for (Task task : decode(channel, pendingPages.poll())) {
+                    tL.restoreTask(task);
+                }
+            }
+            tL.restoreNextId(nextId);
+            return generation;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new AftonException("Someone messed with my files...");
+        }
+    }
+
+    /**
+     * Reads only the header and index footer of the snapshot, and hands the taskList a source which decodes
+     * each page the first time the taskList reaches it
+     * @param tL The current taskList, which must be empty
+     * @return The journal generation the snapshot includes
+     * @throws AftonException If the header or footer is truncated, malformed or fails its checksum
+     */
+    synchronized long readLazily(LazyTaskList tL) throws IOException, AftonException {
+        closeLazyChannel();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long generation;
+        try {
+            generation = readIndex(channel);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            channel.close();
+            throw new AftonException("Someone messed with my files...");
+        } catch (IOException | AftonException e) {
+            channel.close();
+            throw e;
+        }
+        lazyChannel = channel;
+        int taskCount = 0;
+        for (Page page : pages) {
+            taskCount += page.taskCount;
+        }
+        tL.attach(taskCount, this::decodeNextPage);
+        tL.restoreNextId(nextId);
+        return generation;
+    }
+
+    /**
+     * Decodes the first page the taskList has not reached yet
+     * The page stays first in line until it decodes, so a failure never shifts the pages after it.
+     * @throws UnreadableLedgerException If the page cannot be read or fails its checksum
+     */
+    private synchronized List<Task> decodeNextPage() {
+        Page page = pendingPages.peek();
+        if (page == null || lazyChannel == null) {
+            return List.of();
+        }
+        try {
+            List<Task> tasks = decode(lazyChannel, page);
+            pendingPages.poll();
+            if (pendingPages.isEmpty()) {
+                closeLazyChannel();
+            }
+            return tasks;
+        } catch (AftonException e) {
+            throw new UnreadableLedgerException(e.getMessage(), e);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new UnreadableLedgerException("Someone messed with my files...", e);
+        }
+    }
+
+    /**
+     * Reads the header and footer, leaving every page listed in the footer waiting to be decoded
+     * @return The journal generation the snapshot includes
+     */
+    private long readIndex(FileChannel channel) throws IOException, AftonException {
+        Header first = readHeader(channel, 0);
+        Header second = readHeader(channel, 1);
+        if (first == null && second == null) {
+            throw new AftonException("Someone messed with my files... (checksum mismatch)");
+        }
+        Header newer = second == null || (first != null && first.sequence > second.sequence) ? first : second;
+        Header older = newer == first ? second : first;
+        try {
+            return readIndex(channel, newer);
+        } catch (AftonException e) {
+            // The newer header is only written once its footer is on disk, so this is a fallback for damage
+            if (older == null) {
+                throw e;
+            }
+            return readIndex(channel, older);
+        }
+    }
+
+    /**
+     * Reads the footer the given header points at, leaving every page it lists waiting to be decoded
+     */
+    private long readIndex(FileChannel channel, Header header) throws IOException, AftonException {
+        int newFooterSlot = header.footerSlot;
+        int newFooterSlotCount = header.footerSlotCount;
+        int newFooterLength = header.footerLength;
+        int newFooterChecksum = header.footerChecksum;
+        ByteBuffer footer = readChecked(channel, newFooterSlot, newFooterLength, newFooterChecksum);
+        BitSet newUsedSlots = new BitSet();
+        newUsedSlots.set(0);
+        newUsedSlots.set(newFooterSlot, newFooterSlot + newFooterSlotCount);
+        int pageCount = footer.getInt();
+        List<Page> newPages = new ArrayList<>(pageCount);
+        for (int p = 0; p < pageCount; p++) {
+            Page page = new Page(footer.getInt(), footer.getInt(), footer.getInt(), footer.getInt(), footer.getInt());
+            if (page.taskCount < 1) {
+                throw new AftonException("Someone messed with my files...");
+            }
+            newPages.add(page);
+            newUsedSlots.set(page.slot, page.slot + page.slotCount);
+        }
+        long newNextId = header.version == VERSION ? footer.getLong() : 0;
+
+        pages = newPages;
+        pendingPages = new ArrayDeque<>(newPages);
+        usedSlots = newUsedSlots;
+        footerSlot = newFooterSlot;
+        footerSlotCount = newFooterSlotCount;
+        footerLength = newFooterLength;
+        footerChecksum = newFooterChecksum;
+        nextId = newNextId;
+        isLegacy = header.version != VERSION;
+        headerSequence = header.sequence;
+        headerCopy = header.copy;
+        return header.generation;
+    }
+
+    /**
+     * Reads one copy of the header
+     * @param copy 0 for the copy at the start of the file, 1 for the one halfway through slot 0
+     * @return The header, or null if the copy is missing or fails its checksum
+     * @throws AftonException If the copy is whole but belongs to another format or version
+     */
+    private static Header readHeader(FileChannel channel, int copy) throws IOException, AftonException {
+        long position = (long) copy * HEADER_COPY_OFFSET;
+        if (position + HEADER_LENGTH > channel.size()) {
+            return null;
+        }
+        ByteBuffer buffer = readFully(channel, position, HEADER_LENGTH);
+        if (buffer.getInt(HEADER_BODY_LENGTH) != checksum(buffer.array(), HEADER_BODY_LENGTH)) {
+            return null;
+        }
+        int magic = buffer.getInt();
+        short version = buffer.getShort();
+        if (magic != MAGIC || (version != VERSION && version != LEGACY_VERSION) || buffer.getInt() != PAGE_SIZE) {
+            throw new AftonException("Someone messed with my files...");
+        }
+        return new Header(copy, version, buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getInt(),
+            buffer.getInt(), buffer.getInt());
+    }
+
+    private static List<Task> decode(FileChannel channel, Page page) throws IOException, AftonException {
+        ByteBuffer data = readChecked(channel, page.slot, page.length, page.checksum);
+        List<Task> tasks = parsePage(data.array(), page.taskCount);
+        page.remember(tasks, 0, tasks.size());
+        return tasks;
+    }
+
+    private void closeLazyChannel() throws IOException {
+        if (lazyChannel != null) {
+            lazyChannel.close();
+            lazyChannel = null;
+        }
+    }
+
+    /**
+     * Brings the file up to date with the given tasks
+     * Tasks never change apart from their status, so a page only needs writing if it now holds a different run of
+     * IDs or one of its tasks changed status. The whole file is written afresh if this object has not read or
+     * written it yet, if it was read in the legacy version, or once deletes have left its pages mostly empty.
+     * @param tasks Tasks to store, in order
+     * @param nextId ID the next added task will be given
+     * @param generation Journal generation the snapshot includes
+     * @param metrics Metrics the bytes and pages written are counted in
+     */
+    synchronized void write(List<Task> tasks, long nextId, long generation, Metrics metrics) throws IOException {
+        if (pages == null || isLegacy || !pendingPages.isEmpty() || !Files.exists(path)) {
+            writeAll(tasks, nextId, generation, metrics);
+            return;
+        }
+        List<Page> newPages = new ArrayList<>(pages.size() + 1);
+        List<Page> changedPages = new ArrayList<>();
+        int next = 0;
+        for (int p = 0; p < pages.size(); p++) {
+            Page page = pages.get(p);
+            // IDs only grow along the list, so each page keeps every task up to the first ID of the page after it
+            long nextFirstId = p + 1 < pages.size() ? pages.get(p + 1).ids()[0] : Long.MAX_VALUE;
+            int end = next;
+            while (end < tasks.size() && tasks.get(end).getId() < nextFirstId) {
+                end++;
+            }
+            if (page.holds(tasks, next, end)) {
+                newPages.add(page);
+            } else {
+                encode(tasks, next, end, newPages, changedPages);
+            }
+            next = end;
+        }
+        encode(tasks, next, tasks.size(), newPages, changedPages);
+
+        int slotsUsed = 0;
+        long ledgerBytes = 0;
+        for (Page page : newPages) {
+            slotsUsed += page.slotCount;
+            ledgerBytes += page.length;
+        }
+        if (slotsUsed >= MIN_SLOTS_TO_REPACK && ledgerBytes * 100 < (long) slotsUsed * PAGE_SIZE * MIN_FILL_PERCENT) {
+            writeAll(tasks, nextId, generation, metrics);
+            return;
+        }
+
+        // A task added and deleted again between saves leaves every page as it was, but still uses up an ID
+        boolean isIndexChanged = !changedPages.isEmpty() || newPages.size() != pages.size() || nextId != this.nextId;
+        BitSet newUsedSlots = new BitSet();
+        newUsedSlots.set(0);
+        BitSet takenSlots = (BitSet) usedSlots.clone();
+        for (Page page : changedPages) {
+            page.slot = allocate(takenSlots, page.slotCount);
+        }
+        for (Page page : newPages) {
+            newUsedSlots.set(page.slot, page.slot + page.slotCount);
+        }
+        byte[] footer = isIndexChanged ? encodeFooter(newPages, nextId) : null;
+        int newFooterSlotCount = isIndexChanged ? slotsFor(footer.length) : footerSlotCount;
+        int newFooterSlot = isIndexChanged ? allocate(takenSlots, newFooterSlotCount) : footerSlot;
+        int newFooterLength = isIndexChanged ? footer.length : footerLength;
+        int newFooterChecksum = isIndexChanged ? checksum(footer, footer.length) : footerChecksum;
+        newUsedSlots.set(newFooterSlot, newFooterSlot + newFooterSlotCount);
+
+        long bytesWritten = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (Page page : changedPages) {
+                bytesWritten += writeAt(channel, page.slot, page.bytes);
+            }
+            if (isIndexChanged) {
+                bytesWritten += writeAt(channel, newFooterSlot, footer);
+            }
+            channel.force(false);
+            bytesWritten += writeHeader(channel, 1 - headerCopy, encodeHeader(headerSequence + 1, generation,
+                newFooterSlot, newFooterSlotCount, newFooterLength, newFooterChecksum));
+            channel.force(false);
+            // The slots of the snapshot this one replaces are kept, since the other header copy still points at them
+            channel.truncate((long) Math.max(newUsedSlots.length(), usedSlots.length()) * PAGE_SIZE);
+        }
+
+        for (Page page : changedPages) {
+            page.bytes = null;
+        }
+        pages = newPages;
+        usedSlots = newUsedSlots;
+        footerSlot = newFooterSlot;
+        footerSlotCount = newFooterSlotCount;
+        footerLength = newFooterLength;
+        footerChecksum = newFooterChecksum;
+        this.nextId = nextId;
+        headerSequence++;
+        headerCopy = 1 - headerCopy;
+        countWrite(metrics, bytesWritten, changedPages.size(), newPages.size(), ledgerBytes);
+    }
+
+    /**
+     * Writes every task into a fresh file, packing the pages one after another, and moves it over the old one
+     */
+    private void writeAll(List<Task> tasks, long nextId, long generation, Metrics metrics) throws IOException {
+        closeLazyChannel();
+        pendingPages.clear();
+        List<Page> newPages = new ArrayList<>();
+        encode(tasks, 0, tasks.size(), newPages, newPages);
+        BitSet newUsedSlots = new BitSet();
+        newUsedSlots.set(0);
+        int nextSlot = 1;
+        long ledgerBytes = 0;
+        for (Page page : newPages) {
+            page.slot = nextSlot;
+            nextSlot += page.slotCount;
+            ledgerBytes += page.length;
+        }
+        newUsedSlots.set(1, nextSlot);
+        byte[] footer = encodeFooter(newPages, nextId);
+        int newFooterSlotCount = slotsFor(footer.length);
+        newUsedSlots.set(nextSlot, nextSlot + newFooterSlotCount);
+        int newFooterChecksum = checksum(footer, footer.length);
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        long bytesWritten = 0;
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Page page : newPages) {
+                bytesWritten += writeAt(channel, page.slot, page.bytes);
+            }
+            bytesWritten += writeAt(channel, nextSlot, footer);
+            bytesWritten += writeHeader(channel, 0, encodeHeader(headerSequence + 1, generation, nextSlot,
+                newFooterSlotCount, footer.length, newFooterChecksum));
+            channel.force(true);
+        }
+        SnapshotFile.replace(tempPath, path);
+
+        for (Page page : newPages) {
+            page.bytes = null;
+        }
+        pages = newPages;
+        usedSlots = newUsedSlots;
+        footerSlot = nextSlot;
+        footerSlotCount = newFooterSlotCount;
+        footerLength = footer.length;
+        footerChecksum = newFooterChecksum;
+        this.nextId = nextId;
+        isLegacy = false;
+        headerSequence++;
+        headerCopy = 0;
+        countWrite(metrics, bytesWritten, newPages.size(), newPages.size(), ledgerBytes);
+    }
+
+    private static void countWrite(Metrics metrics, long bytesWritten, int pagesWritten, int ledgerPages,
+            long ledgerBytes) {
+        metrics.count("storage.bytesWritten", bytesWritten);
+        metrics.count("storage.ledgerBytes", ledgerBytes);
+        metrics.count("storage.pagesWritten", pagesWritten);
+        metrics.count("storage.ledgerPages", ledgerPages);
+    }
+
+    /**
+     * Packs the tasks between two indexes into as few pages as fit, adding each page to both lists
+     */
+    private static void encode(List<Task> tasks, int from, int to, List<Page> allPages, List<Page> newPages) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(PAGE_SIZE);
+        int pageStart = from;
+        for (int i = from; i < to; i++) {
+            byte[] line = (TaskDataReader.toLine(tasks.get(i)) + "\n").getBytes(StandardCharsets.UTF_8);
+            if (buffer.size() > 0 && buffer.size() + line.length > PAGE_SIZE) {
+                addPage(tasks, pageStart, i, buffer.toByteArray(), allPages, newPages);
+                buffer.reset();
+                pageStart = i;
+            }
+            buffer.writeBytes(line);
+        }
+        if (pageStart < to) {
+            addPage(tasks, pageStart, to, buffer.toByteArray(), allPages, newPages);
+        }
+    }
+
+    private static void addPage(List<Task> tasks, int from, int to, byte[] bytes,
+            List<Page> allPages, List<Page> newPages) {
+        Page page = new Page(-1, slotsFor(bytes.length), to - from, bytes.length, checksum(bytes, bytes.length));
+        page.remember(tasks, from, to);
+        page.ids();
+        page.bytes = bytes;
+        allPages.add(page);
+        if (newPages != allPages) {
+            newPages.add(page);
+        }
+    }
+
+    private static List<Task> parsePage(byte[] bytes, int taskCount) throws AftonException {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        List<Task> tasks = new ArrayList<>(taskCount);
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                throw new AftonException("Someone messed with my files...");
+            }
+            Task task = TaskDataReader.parseTask(text.substring(lineStart, lineEnd));
+            if (task == null) {
+                throw new AftonException("Someone messed with my files...");
+            }
+            tasks.add(task);
+            lineStart = lineEnd + 1;
+        }
+        if (tasks.size() != taskCount) {
+            throw new AftonException("Someone messed with my files...");
+        }
+        return tasks;
+    }
+
+    private static byte[] encodeHeader(long sequence, long generation, int footerSlot, int footerSlotCount,
+            int footerLength, int footerChecksum) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putInt(PAGE_SIZE);
+        header.putLong(sequence);
+        header.putLong(generation);
+        header.putInt(footerSlot);
+        header.putInt(footerSlotCount);
+        header.putInt(footerLength);
+        header.putInt(footerChecksum);
+        header.putInt(checksum(header.array(), HEADER_BODY_LENGTH));
+        return header.array();
+    }
+
+    private static byte[] encodeFooter(List<Page> pages, long nextId) {
+        ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES + pages.size() * FOOTER_ENTRY_LENGTH + Long.BYTES);
+        footer.putInt(pages.size());
+        for (Page page : pages) {
+            footer.putInt(page.slot);
+            footer.putInt(page.slotCount);
+            footer.putInt(page.taskCount);
+            footer.putInt(page.length);
+            footer.putInt(page.checksum);
+        }
+        footer.putLong(nextId);
+        return footer.array();
+    }
+
+    /**
+     * Finds the first run of free slots long enough to hold a page, and takes it
+     */
+    private static int allocate(BitSet takenSlots, int slotCount) {
+        int slot = takenSlots.nextClearBit(1);
+        int nextTaken = takenSlots.nextSetBit(slot);
+        while (nextTaken >= 0 && nextTaken - slot < slotCount) {
+            slot = takenSlots.nextClearBit(nextTaken);
+            nextTaken = takenSlots.nextSetBit(slot);
+        }
+        takenSlots.set(slot, slot + slotCount);
+        return slot;
+    }
+
+    private static int slotsFor(int length) {
+        return Math.max(1, (length + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, 0, length);
+        return (int) checksum.getValue();
+    }
+
+    private static long writeAt(FileChannel channel, int slot, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = (long) slot * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return bytes.length;
+    }
+
+    private static long writeHeader(FileChannel channel, int copy, byte[] header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        long position = (long) copy * HEADER_COPY_OFFSET;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return header.length;
+    }
+
+    private static ByteBuffer readChecked(FileChannel channel, int slot, int length, int expected)
+            throws IOException, AftonException {
+        ByteBuffer buffer = readFully(channel, (long) slot * PAGE_SIZE, length);
+        if (checksum(buffer.array(), length) != expected) {
+            throw new AftonException("Someone messed with my files... (checksum mismatch)");
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length)
+            throws IOException, AftonException {
+        if (position < 0 || position + length > channel.size()) {
+            throw new AftonException("Someone messed with my files...");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new AftonException("Someone messed with my files...");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * One copy of the header
+     */
+    private static class Header {
+        private final int copy;
+        private final short version;
+        private final long sequence;
+        private final long generation;
+        private final int footerSlot;
+        private final int footerSlotCount;
+        private final int footerLength;
+        private final int footerChecksum;
+
+        Header(int copy, short version, long sequence, long generation, int footerSlot, int footerSlotCount,
+                int footerLength, int footerChecksum) {
+            this.copy = copy;
+            this.version = version;
+            this.sequence = sequence;
+            this.generation = generation;
+            this.footerSlot = footerSlot;
+            this.footerSlotCount = footerSlotCount;
+            this.footerLength = footerLength;
+            this.footerChecksum = footerChecksum;
+        }
+    }
+
+    /**
+     * A run of tasks stored together, along with what each of them held when the page was written
+     */
+    private static class Page {
+        private final int slotCount;
+        private final int taskCount;
+        private final int length;
+        private final int checksum;
+        private int slot;
+        private long[] ids;
+        private boolean[] marks;
+        private String[] names;
+        /** Tasks decoded from the page whose IDs are only read once the taskList has given them out */
+        private List<Task> decodedTasks;
+        /** Encoded contents, only kept until the page has been written */
+        private byte[] bytes;
+
+        Page(int slot, int slotCount, int taskCount, int length, int checksum) {
+            this.slot = slot;
+            this.slotCount = slotCount;
+            this.taskCount = taskCount;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Records the status and name of each task between two indexes as the page holds them
+         */
+        void remember(List<Task> tasks, int from, int to) {
+            marks = new boolean[to - from];
+            names = new String[to - from];
+            for (int i = from; i < to; i++) {
+                Task task = tasks.get(i);
+                marks[i - from] = task.isMarked();
+                names[i - from] = task.getName();
+            }
+            decodedTasks = tasks.subList(from, to);
+            ids = null;
+        }
+
+        long[] ids() {
+            if (ids == null) {
+                ids = new long[decodedTasks.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = decodedTasks.get(i).getId();
+                }
+                decodedTasks = null;
+            }
+            return ids;
+        }
+
+        /**
+         * Checks whether the tasks between two indexes are exactly the ones this page holds
+         */
+        boolean holds(List<Task> tasks, int from, int to) {
+            long[] pageIds = ids();
+            if (to - from != pageIds.length) {
+                return false;
+            }
+            for (int i = 0; i < pageIds.length; i++) {
+                Task task = tasks.get(from + i);
+                String name = task.getName();
+                if (task.getId() != pageIds[i] || task.isMarked() != marks[i]
+                        || (name != names[i] && !name.equals(names[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
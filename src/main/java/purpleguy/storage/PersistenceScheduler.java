@@ -0,0 +1,134 @@
+package purpleguy.storage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Coalesces mutations recorded through a Storage and commits them from a background thread.
+ * A flush happens every flush interval, or as soon as the number of uncommitted mutations reaches the dirty threshold.
+ * Schedulers for several ledgers share one flusher thread, the process-wide one unless they are given
+ * another executor, so a process hosting many ledgers does not need a thread for each.
+ */
+public class PersistenceScheduler {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_DIRTY_THRESHOLD = 1000;
+
+    private final Storage storage;
+    private final TaskList tL;
+    private final int dirtyThreshold;
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final ScheduledExecutorService flusher;
+    private final boolean isOwnFlusher;
+    private final ScheduledFuture<?> periodicFlush;
+
+    /**
+     * Creates a scheduler which flushes on the process-wide flusher thread and attaches it to the given storage
+     * @param storage Storage whose mutations are committed by this scheduler
+     * @param tL The taskList persisted by the storage
+     */
+    public PersistenceScheduler(Storage storage, TaskList tL) {
+        this(storage, tL, sharedFlusher());
+    }
+
+    /**
+     * Creates a scheduler and attaches it to the given storage
+     * @param storage Storage whose mutations are committed by this scheduler
+     * @param tL The taskList persisted by the storage
+     * @param flushIntervalMillis Longest time a mutation stays uncommitted
+     * @param dirtyThreshold Number of uncommitted mutations that triggers an early flush
+     */
+    public PersistenceScheduler(Storage storage, TaskList tL, long flushIntervalMillis, int dirtyThreshold) {
+        this(storage, tL, flushIntervalMillis, dirtyThreshold, createFlusher(), true);
+    }
+
+    /**
+     * Creates a scheduler which flushes on a shared executor and attaches it to the given storage
+     * Shutting the scheduler down leaves the executor running for the other ledgers using it.
+     * @param storage Storage whose mutations are committed by this scheduler
+     * @param tL The taskList persisted by the storage
+     * @param flusher Executor the flushes run on
+     */
+    public PersistenceScheduler(Storage storage, TaskList tL, ScheduledExecutorService flusher) {
+        this(storage, tL, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_DIRTY_THRESHOLD, flusher, false);
+    }
+
+    private PersistenceScheduler(Storage storage, TaskList tL, long flushIntervalMillis, int dirtyThreshold,
+            ScheduledExecutorService flusher, boolean isOwnFlusher) {
+        this.storage = storage;
+        this.tL = tL;
+        this.dirtyThreshold = dirtyThreshold;
+        this.flusher = flusher;
+        this.isOwnFlusher = isOwnFlusher;
+        this.periodicFlush = flusher.scheduleWithFixedDelay(this::flushIfDirty, flushIntervalMillis,
+                flushIntervalMillis, TimeUnit.MILLISECONDS);
+        storage.setScheduler(this);
+    }
+
+    /**
+     * Notes that one more mutation is waiting to be committed
+     */
+    void recordMutation() {
+        if (dirtyCount.incrementAndGet() == dirtyThreshold) {
+            flusher.execute(this::flushIfDirty);
+        }
+    }
+
+    /**
+     * Commits every pending mutation on the calling thread
+     * The taskList is not locked while this runs; the storage writes from a snapshot of it instead.
+     */
+    public void flush() {
+        dirtyCount.set(0);
+        storage.flush(tL);
+    }
+
+    /**
+     * Stops the background thread after committing every pending mutation
+     */
+    public void shutDown() {
+        periodicFlush.cancel(false);
+        if (isOwnFlusher) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void flushIfDirty() {
+        if (dirtyCount.get() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the flusher thread shared by every scheduler not given its own executor
+     * It is a daemon thread which is started on first use and never shut down.
+     */
+    public static ScheduledExecutorService sharedFlusher() {
+        return SharedFlusher.INSTANCE;
+    }
+
+    private static ScheduledExecutorService createFlusher() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "purpleguy-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Holds the shared flusher, so its thread is only started once a scheduler needs it
+     */
+    private static class SharedFlusher {
+        private static final ScheduledExecutorService INSTANCE = createFlusher();
+    }
+}
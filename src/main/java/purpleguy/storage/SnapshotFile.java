@@ -0,0 +1,191 @@
+package purpleguy.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import purpleguy.exception.AftonException;
+
+/**
+ * Writes snapshot files crash-safely and checks them when they are read back.
+ * A snapshot is written to a temporary file, fsynced and atomically moved over the old one,
+ * and ends with a "#crc32c" trailer holding the checksum of every byte before it.
+ */
+class SnapshotFile {
+    static final String CHECKSUM_TRAILER = "#crc32c ";
+
+    private static final int CHECKSUM_DIGITS = 8;
+    private static final int MAX_TRAILER_LENGTH = CHECKSUM_TRAILER.length() + CHECKSUM_DIGITS + 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes the body of a snapshot to an output stream
+     */
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private SnapshotFile() {}
+
+    /**
+     * Replaces the file at the target path with the given body and its checksum trailer
+     * The old file stays intact until the new one is complete and on disk.
+     * @param target Snapshot file to replace
+     * @param body Writes the snapshot contents
+     */
+    static void write(Path target, Body body) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path tempPath = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            OutputStream out = new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), BUFFER_SIZE);
+            body.writeTo(out);
+            out.flush();
+            String trailer = CHECKSUM_TRAILER + String.format("%08x", checksum.getValue()) + System.lineSeparator();
+            ByteBuffer trailerBytes = ByteBuffer.wrap(trailer.getBytes(StandardCharsets.US_ASCII));
+            while (trailerBytes.hasRemaining()) {
+                channel.write(trailerBytes);
+            }
+            channel.force(true);
+        }
+        replace(tempPath, target);
+    }
+
+    /**
+     * Moves a finished file over the target, atomically where the file system allows it
+     * @param source File which has been written and forced to disk
+     * @param target File to replace
+     */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces the directory entry changes of the given directory to disk, so a rename into it survives a crash
+     * File systems which cannot open a directory for reading, such as those on Windows, are left as they are.
+     * @param directory Directory to force
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException | UnsupportedOperationException e) {
+            // The directory cannot be opened here, so the rename is as durable as the platform makes it
+        }
+    }
+
+    /**
+     * Checks whether the file at the given path starts with the given magic number
+     * @param path File to check
+     * @param magic Magic number of a snapshot format
+     * @return T/F based on if the file starts with the magic number
+     */
+    static boolean startsWith(Path path, int magic) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < Integer.BYTES) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] bytes = in.readNBytes(Integer.BYTES);
+            return ((bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8
+                | (bytes[3] & 0xFF)) == magic;
+        }
+    }
+
+    /**
+     * Checks the trailer of a snapshot against its contents
+     * Text files without a generation header were written by older versions and are accepted without a trailer,
+     * but every file starting with a generation header or the binary magic number must end with a valid one.
+     * @param path Snapshot to check
+     * @throws AftonException If the trailer is missing or malformed where required, or the checksum does not match
+     */
+    static void verify(Path path) throws IOException, AftonException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean isTrailerRequired = hasCurrentHeader(channel);
+            int tailLength = (int) Math.min(size, MAX_TRAILER_LENGTH);
+            ByteBuffer tail = ByteBuffer.allocate(tailLength);
+            while (tail.hasRemaining() && channel.read(tail, size - tailLength + tail.position()) >= 0) {
+                // Keep reading until the whole tail is in the buffer
+            }
+            String tailText = new String(tail.array(), StandardCharsets.ISO_8859_1);
+            int trailerStart = tailText.lastIndexOf(CHECKSUM_TRAILER);
+            int digitsStart = trailerStart + CHECKSUM_TRAILER.length();
+            long expected = -1;
+            if (trailerStart >= 0 && digitsStart + CHECKSUM_DIGITS <= tailText.length()
+                    && tailText.substring(digitsStart + CHECKSUM_DIGITS).isBlank()) {
+                try {
+                    expected = Long.parseLong(tailText.substring(digitsStart, digitsStart + CHECKSUM_DIGITS), 16);
+                } catch (NumberFormatException e) {
+                    expected = -1;
+                }
+            }
+            if (expected < 0) {
+                if (isTrailerRequired) {
+                    throw new AftonException("Someone messed with my files... (checksum missing)");
+                }
+                return;
+            }
+
+            long bodyLength = size - tailLength + trailerStart;
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            while (position < bodyLength) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, bodyLength - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                checksum.update(buffer);
+                position += read;
+            }
+            if (checksum.getValue() != expected) {
+                throw new AftonException("Someone messed with my files... (checksum mismatch)");
+            }
+        }
+    }
+
+    /**
+     * Checks whether the file starts the way every snapshot written with a trailer does
+     */
+    private static boolean hasCurrentHeader(FileChannel channel) throws IOException {
+        byte[] generationHeader = Journal.GENERATION_HEADER.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer head = ByteBuffer.allocate(Math.max(generationHeader.length, Integer.BYTES));
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // Keep reading until the head is in the buffer or the file ends
+        }
+        if (head.position() >= Integer.BYTES && head.getInt(0) == BinarySnapshot.MAGIC) {
+            return true;
+        }
+        if (head.position() < generationHeader.length) {
+            return false;
+        }
+        for (int i = 0; i < generationHeader.length; i++) {
+            if (head.get(i) != generationHeader[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,85 +1,653 @@
 package purpleguy.storage;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
 
-import purpleguy.Deadline;
-import purpleguy.Event;
 import purpleguy.Task;
-import purpleguy.ToDo;
 import purpleguy.exception.AftonException;
+import purpleguy.exception.UnreadableLedgerException;
+import purpleguy.metrics.Metrics;
+import purpleguy.tasklist.LazyTaskList;
+import purpleguy.tasklist.ObjectTaskList;
 import purpleguy.tasklist.TaskList;
 
 /**
  * Handles the reading and writing of tasks to and from the storage file (PurpleGuy.txt)
+ * In journaled mode, each mutation is appended to PurpleGuy.txt.journal and folded into the snapshot
+ * by a background compaction once the journal grows past a threshold.
+ * Snapshots are written in the configured {@link Format}; any format is recognised when reading.
+ * Every format, like the journal, stores each task's ID along with the next ID to hand out, so a reload numbers
+ * the tasks exactly as they were.
+ * The bytes written by every snapshot are counted in the metrics against the size of the ledger, so the share of
+ * the ledger each save rewrites can be read off the stats.
  */
 public class Storage {
-    public static final String STORAGE_FILEPATH = "./src/main/java/purpleguy/data/PurpleGuy.txt";
+    /**
+     * Encodings available for the snapshot file
+     */
+    public enum Format {
+        TEXT,
+        BINARY,
+        /** Fixed-size pages which are rewritten in place, so a save only writes the pages holding changed tasks */
+        PAGED
+    }
+
+    /** File used by a Storage created without a path */
+    public static final String DEFAULT_FILEPATH = "./data/PurpleGuy.txt";
+    /** File older versions kept the ledger in, still used while it exists and the default file does not */
+    private static final String LEGACY_FILEPATH = "./src/main/java/purpleguy/data/PurpleGuy.txt";
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String ROTATED_JOURNAL_SUFFIX = ".journal.old";
+    private static final String ADD_RECORD = "ADD";
+    private static final String MARK_RECORD = "MARK";
+    private static final String UNMARK_RECORD = "UNMARK";
+    private static final String DELETE_RECORD = "DELETE";
+
+    private final Path filePath;
+    private final boolean isJournaled;
+    private final long compactionThreshold;
+    private final Format format;
+    private final PagedSnapshot pagedSnapshot;
+    private Journal journal;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+    private LongConsumer progressListener = linesRead -> { };
+    private PersistenceScheduler scheduler;
+    private boolean isSyncOnCommit;
+    private boolean isDirty;
+    private boolean isInBatch;
+    private Metrics metrics = new Metrics();
+    private final Object snapshotWriteLock = new Object();
+    private long snapshotsTaken;
+    private long snapshotsWritten;
+
+    public Storage() {
+        this(getDefaultFilePath(), false);
+    }
+
+    /**
+     * Returns the file a ledger is kept in when no path is given
+     * A ledger left at the path older versions used is kept there, so upgrading does not lose it.
+     */
+    public static String getDefaultFilePath() {
+        if (!Files.exists(Paths.get(DEFAULT_FILEPATH)) && Files.exists(Paths.get(LEGACY_FILEPATH))) {
+            return LEGACY_FILEPATH;
+        }
+        return DEFAULT_FILEPATH;
+    }
+
+    public Storage(String filePath, boolean isJournaled) {
+        this(filePath, isJournaled, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public Storage(String filePath, boolean isJournaled, long compactionThreshold) {
+        this(filePath, isJournaled, compactionThreshold, Format.TEXT);
+    }
+
+    /**
+     * Creates a Storage backed by the given file
+     * @param filePath Path of the snapshot file
+     * @param isJournaled Whether mutations are appended to a journal instead of rewriting the snapshot
+     * @param compactionThreshold Journal size in bytes after which it is folded into the snapshot
+     * @param format Encoding used when writing snapshots
+     */
+    public Storage(String filePath, boolean isJournaled, long compactionThreshold, Format format) {
+        this.filePath = Paths.get(filePath);
+        this.isJournaled = isJournaled;
+        this.compactionThreshold = compactionThreshold;
+        this.format = format;
+        this.pagedSnapshot = new PagedSnapshot(this.filePath);
+    }
+
+    /**
+     * Registers a listener that is periodically told how many lines of a text snapshot have been loaded
+     * @param progressListener Receives the number of lines read so far
+     */
+    public void setProgressListener(LongConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Chooses whether every commit waits for the data to reach the disk
+     * @param isSyncOnCommit True to fsync the journal on every flush
+     */
+    public void setSyncOnCommit(boolean isSyncOnCommit) {
+        this.isSyncOnCommit = isSyncOnCommit;
+    }
+
+    /**
+     * Records the time taken to read, store, flush and log changes to the given metrics
+     * @param metrics Metrics the timings are recorded to
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Hands mutations over to a scheduler which commits them in groups instead of one at a time
+     * @param scheduler Scheduler that decides when to flush
+     */
+    void setScheduler(PersistenceScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Commits every mutation recorded since the last flush
+     * @param tL The current taskList
+     */
+    public void flush(TaskList tL) {
+        if (!isJournaled) {
+            if (hasUnstoredChanges()) {
+                storeSnapshot(tL);
+            }
+            return;
+        }
+        flushJournal();
+    }
+
+    private synchronized boolean hasUnstoredChanges() {
+        return isDirty && !isInBatch;
+    }
+
+    private synchronized void flushJournal() {
+        if (isInBatch) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            if (journal != null) {
+                journal.flush(isSyncOnCommit);
+            }
+        } catch (IOException e) {
+            System.err.println("An error has occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+        metrics.recordSince("storage.flush", startTime);
+    }
 
-    public Storage() {}
+    /**
+     * Stops persisting mutations one at a time until {@link #commitBatch(TaskList)} is called
+     * Nothing recorded during the batch reaches the disk unless the batch is committed.
+     */
+    public synchronized void beginBatch() {
+        isInBatch = true;
+    }
+
+    /**
+     * Ends the current batch and persists every change made during it with a single snapshot write
+     * @param tL The current taskList
+     */
+    public void commitBatch(TaskList tL) {
+        synchronized (this) {
+            isInBatch = false;
+        }
+        if (hasUnstoredChanges()) {
+            storeTL(tL);
+        }
+    }
 
     /**
      * Stores the current state of the taskList to the PurpleGuy.txt file
+     * In journaled mode this also folds the journal into the snapshot
      * @param tL The current taskList
      */
     public void storeTL(TaskList tL) {
-        Path fileName = Paths.get(STORAGE_FILEPATH);
+        if (!isJournaled) {
+            storeSnapshot(tL);
+            return;
+        }
+        storeAndResetJournal(tL);
+    }
+
+    /**
+     * Writes a snapshot of the taskList without holding this Storage's lock, so commands can keep recording changes
+     * Snapshots are numbered as they are taken, and one that is about to overwrite a newer snapshot is dropped.
+     */
+    private void storeSnapshot(TaskList tL) {
+        long startTime = System.nanoTime();
+        List<Task> tasks;
+        long nextId;
+        long sequence;
+        synchronized (this) {
+            try {
+                tasks = tL.getTasks();
+                nextId = tL.getNextId();
+            } catch (UnreadableLedgerException e) {
+                // Writing only the tasks which could be read would lose the rest of the ledger, so nothing is written
+                System.err.println("An error has occurred: " + e.getMessage());
+                return;
+            }
+            isDirty = false;
+            sequence = ++snapshotsTaken;
+        }
         try {
-            Files.createDirectories(fileName.getParent());
-            Files.write(fileName, tL.toData(),
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            synchronized (snapshotWriteLock) {
+                if (sequence > snapshotsWritten) {
+                    writeSnapshot(tasks, nextId, 0);
+                    snapshotsWritten = sequence;
+                }
+            }
         } catch (IOException e) {
+            synchronized (this) {
+                isDirty = true;
+            }
             System.err.println("An error has occurred: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            metrics.recordSince("storage.storeTL", startTime);
         }
     }
 
+    /**
+     * Folds the journal into a fresh snapshot without holding this Storage's lock while the snapshot is written
+     * The tasks are taken and the journal rotated under the lock, so commands keep appending to the fresh journal
+     * during the write. The write stands in as the pending compaction, so no compaction rotates the journal again
+     * until it is done.
+     */
+    private void storeAndResetJournal(TaskList tL) {
+        long startTime = System.nanoTime();
+        CompletableFuture<Void> store = new CompletableFuture<>();
+        Path rotatedPath = getSiblingPath(ROTATED_JOURNAL_SUFFIX);
+        try {
+            List<Task> tasks = null;
+            long nextId = 0;
+            long newGeneration = 0;
+            while (tasks == null) {
+                Future<?> pending;
+                synchronized (this) {
+                    pending = pendingCompaction;
+                    if (pending == null || pending.isDone()) {
+                        tasks = tL.getTasks();
+                        nextId = tL.getNextId();
+                        if (journal == null) {
+                            openJournal();
+                        }
+                        newGeneration = journal.getGeneration() + 1;
+                        journal = journal.rotate(rotatedPath, newGeneration);
+                        pendingCompaction = store;
+                        isDirty = false;
+                    }
+                }
+                if (tasks == null) {
+                    awaitCompaction(pending);
+                }
+            }
+            writeSnapshot(tasks, nextId, newGeneration);
+            Files.deleteIfExists(rotatedPath);
+        } catch (IOException | UnreadableLedgerException e) {
+            System.err.println("An error has occurred: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            store.complete(null);
+            metrics.recordSince("storage.storeTL", startTime);
+        }
+    }
+
+    /**
+     * Records that a task was appended to the end of the taskList
+     * @param tL The current taskList
+     * @param task The task that was added
+     */
+    public void logAdd(TaskList tL, Task task) {
+        logMutations(tL, ADD_RECORD + " | " + TaskDataReader.toLine(task));
+    }
+
+    /**
+     * Records that the task at the given index was marked
+     * @param tL The current taskList
+     * @param index Zero-based index of the task
+     */
+    public void logMark(TaskList tL, int index) {
+        logMutations(tL, MARK_RECORD + " | " + index);
+    }
+
+    /**
+     * Records that the task at the given index was unmarked
+     * @param tL The current taskList
+     * @param index Zero-based index of the task
+     */
+    public void logUnmark(TaskList tL, int index) {
+        logMutations(tL, UNMARK_RECORD + " | " + index);
+    }
+
+    /**
+     * Records that the task at the given index was deleted
+     * @param tL The current taskList
+     * @param index Zero-based index of the task
+     */
+    public void logDelete(TaskList tL, int index) {
+        logMutations(tL, DELETE_RECORD + " | " + index);
+    }
+
+    /**
+     * Records that the tasks at the given indexes were marked, persisting them together
+     * @param tL The current taskList
+     * @param indexes Zero-based indexes of the tasks
+     */
+    public void logMarkAll(TaskList tL, int[] indexes) {
+        logMutations(tL, toRecords(MARK_RECORD, indexes, false));
+    }
+
+    /**
+     * Records that the tasks at the given indexes were unmarked, persisting them together
+     * @param tL The current taskList
+     * @param indexes Zero-based indexes of the tasks
+     */
+    public void logUnmarkAll(TaskList tL, int[] indexes) {
+        logMutations(tL, toRecords(UNMARK_RECORD, indexes, false));
+    }
+
+    /**
+     * Records that the tasks at the given indexes were deleted, persisting them together
+     * @param tL The current taskList
+     * @param indexes Zero-based indexes the tasks had before any of them were deleted, in ascending order
+     */
+    public void logDeleteAll(TaskList tL, int[] indexes) {
+        // Replaying from the highest index down leaves the lower indexes pointing at the right tasks
+        logMutations(tL, toRecords(DELETE_RECORD, indexes, true));
+    }
+
     /**
      * Retrieves task data from the PurpleGuy.txt file to update the taskList
+     * In journaled mode, any journal newer than the snapshot is replayed on top of it
+     * A paged snapshot read into an empty LazyTaskList only has its index read; the tasks are decoded as needed
      * @param tL The current taskList
      */
     public void readTL(TaskList tL) throws AftonException {
-        Path fileName = Paths.get(STORAGE_FILEPATH);
+        long startTime = System.nanoTime();
         try {
-            List<String> taskData = Files.readAllLines(fileName);
-            for (String string : taskData) {
-                String[] taskVars = string.split("\\|");
-                Task t = null;
-                String taskName = taskVars[2].trim();
-                switch (taskVars[0].trim()) {
-                case "T":
-                    t = new ToDo(taskName);
-                    break;
-                case "D":
-                    t = new Deadline(taskName, formatDate(taskVars[3].trim()));
-                    break;
-                case "E":
-                    String[] time = taskVars[3].trim().split("-");
-                    t = new Event(taskName, formatDate(time[0].trim()), formatDate(time[1].trim()));
-                    break;
-                default:
-                    break;
-                }
-                if (taskVars[1].trim().equals("X")) {
-                    t.mark();
-                }
-                tL.addTask(t);
+            readSnapshotAndJournal(tL);
+        } finally {
+            metrics.recordSince("storage.readTL", startTime);
+        }
+    }
+
+    private void readSnapshotAndJournal(TaskList tL) throws AftonException {
+        if (isJournaled && !Files.exists(filePath)) {
+            recoverJournal(tL, 0);
+            return;
+        }
+        long generation;
+        try {
+            if (PagedSnapshot.isPaged(filePath)) {
+                // An empty LazyTaskList is handed the pages undecoded, so only the index is read here
+                generation = tL instanceof LazyTaskList && tL.isEmpty()
+                    ? pagedSnapshot.readLazily((LazyTaskList) tL)
+                    : pagedSnapshot.read(tL);
+            } else {
+                SnapshotFile.verify(filePath);
+                generation = BinarySnapshot.isBinary(filePath)
+                    ? BinarySnapshot.read(filePath, tL)
+                    : readText(filePath, tL);
+            }
+        } catch (IOException e) {
+            throw new AftonException("An error occured while attempting to read PurpleGuy.txt");
+        }
+        if (isJournaled) {
+            recoverJournal(tL, generation);
+        }
+    }
+
+    /**
+     * Writes the taskList to the given file in the human-readable text format
+     * @param tL The current taskList
+     * @param exportPath File to write to
+     */
+    public void exportText(TaskList tL, String exportPath) throws AftonException {
+        try {
+            Path path = Paths.get(exportPath);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, tL.toData());
+        } catch (IOException e) {
+            throw new AftonException("An error occured while attempting to write " + exportPath);
+        }
+    }
+
+    /**
+     * Appends every task in a text-format file to the taskList and persists the result
+     * The whole file is read before any task is added, so a malformed file leaves the taskList as it was.
+     * @param importPath File to read from
+     * @param tL The current taskList
+     * @return Number of tasks imported
+     */
+    public int importText(String importPath, TaskList tL) throws AftonException {
+        TaskList imported = new ObjectTaskList();
+        try {
+            readText(Paths.get(importPath), imported);
+        } catch (IOException e) {
+            throw new AftonException("An error occured while attempting to read " + importPath);
+        }
+        for (Task task : imported.getTasks()) {
+            tL.addTask(task);
+        }
+        storeTL(tL);
+        return imported.size();
+    }
+
+    private long readText(Path path, TaskList tL) throws IOException, AftonException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return new TaskDataReader(reader, progressListener).readInto(tL);
+        }
+    }
+
+    private static String[] toRecords(String type, int[] indexes, boolean isDescending) {
+        String[] records = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexes[isDescending ? indexes.length - 1 - i : i];
+            records[i] = type + " | " + index;
+        }
+        return records;
+    }
+
+    /**
+     * Persists a group of mutation records with at most one snapshot write or journal flush
+     */
+    private synchronized void logMutations(TaskList tL, String... records) {
+        if (isInBatch) {
+            isDirty = true;
+            return;
+        }
+        if (!isJournaled) {
+            if (scheduler == null) {
+                storeTL(tL);
+            } else {
+                isDirty = true;
+                scheduler.recordMutation();
+            }
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            if (journal == null) {
+                openJournal();
+            }
+            for (String record : records) {
+                journal.append(record);
+            }
+            if (scheduler == null) {
+                journal.flush(isSyncOnCommit);
+            } else {
+                scheduler.recordMutation();
             }
+            if (journal.size() > compactionThreshold) {
+                compactInBackground(tL);
+            }
+        } catch (IOException e) {
+            System.err.println("An error has occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+        metrics.recordSince("storage.append", startTime);
+    }
 
+    /**
+     * Rotates the journal and writes the new snapshot on the compactor thread
+     * Records appended while the snapshot is being written land in the fresh journal.
+     */
+    private void compactInBackground(TaskList tL) throws IOException {
+        if (pendingCompaction != null && !pendingCompaction.isDone()) {
+            return;
+        }
+        List<Task> tasks = tL.getTasks();
+        long nextId = tL.getNextId();
+        long newGeneration = journal.getGeneration() + 1;
+        Path rotatedPath = getSiblingPath(ROTATED_JOURNAL_SUFFIX);
+        journal = journal.rotate(rotatedPath, newGeneration);
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "purpleguy-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                writeSnapshot(tasks, nextId, newGeneration);
+                Files.deleteIfExists(rotatedPath);
+            } catch (IOException e) {
+                System.err.println("An error has occurred: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private static void awaitCompaction(Future<?> compaction) {
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the given tasks as the snapshot, in the configured format
+     * @param tasks Tasks to store, in order, each with its ID
+     * @param nextId ID the next added task will be given, which may be above every stored ID once tasks are deleted
+     * @param generation Journal generation the snapshot includes
+     */
+    private void writeSnapshot(List<Task> tasks, long nextId, long generation) throws IOException {
+        if (format == Format.PAGED) {
+            pagedSnapshot.write(tasks, nextId, generation, metrics);
+            return;
+        }
+        if (format == Format.BINARY) {
+            SnapshotFile.write(filePath, out -> BinarySnapshot.write(out, tasks, nextId, generation));
+        } else {
+            writeTextSnapshot(tasks, nextId, generation);
+        }
+        // Every other format rewrites the whole ledger on each save
+        long size = Files.size(filePath);
+        metrics.count("storage.bytesWritten", size);
+        metrics.count("storage.ledgerBytes", size);
+    }
+
+    private void writeTextSnapshot(List<Task> tasks, long nextId, long generation) throws IOException {
+        SnapshotFile.write(filePath, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write(Journal.GENERATION_HEADER + generation + System.lineSeparator());
+            writer.write(TaskDataReader.NEXT_ID_HEADER + nextId + System.lineSeparator());
+            for (Task task : tasks) {
+                writer.write(TaskDataReader.toLine(task));
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+        });
+    }
+
+    private void openJournal() throws IOException {
+        Path journalPath = getSiblingPath(JOURNAL_SUFFIX);
+        journal = Journal.readGeneration(journalPath) < 0
+            ? Journal.create(journalPath, 0)
+            : Journal.resume(journalPath);
+    }
+
+    /**
+     * Replays the journals that are not yet part of the snapshot
+     * If an unfinished compaction is found, the recovered state is written out as a fresh snapshot.
+     */
+    private synchronized void recoverJournal(TaskList tL, long snapshotGeneration) throws AftonException {
+        Path rotatedPath = getSiblingPath(ROTATED_JOURNAL_SUFFIX);
+        Path journalPath = getSiblingPath(JOURNAL_SUFFIX);
+        try {
+            long rotatedGeneration = Journal.readGeneration(rotatedPath);
+            long journalGeneration = Journal.readGeneration(journalPath);
+            if (rotatedGeneration >= snapshotGeneration) {
+                replay(tL, Journal.readRecords(rotatedPath));
+            }
+            if (journalGeneration >= snapshotGeneration) {
+                replay(tL, Journal.readRecords(journalPath));
+            }
+            if (Files.exists(rotatedPath) || journalGeneration < snapshotGeneration) {
+                long newGeneration = Math.max(snapshotGeneration, journalGeneration) + 1;
+                writeSnapshot(tL.getTasks(), tL.getNextId(), newGeneration);
+                Files.deleteIfExists(rotatedPath);
+                journal = Journal.create(journalPath, newGeneration);
+            } else {
+                journal = Journal.resume(journalPath);
+            }
         } catch (IOException e) {
             throw new AftonException("An error occured while attempting to read PurpleGuy.txt");
-        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    /**
+     * Applies journal records to the taskList in order
+     * A malformed final record is a write torn by a crash and is dropped.
+     */
+    private static void replay(TaskList tL, List<String> records) throws AftonException {
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                applyRecord(tL, records.get(i));
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                if (i != records.size() - 1) {
+                    throw new AftonException("Someone messed with my files...");
+                }
+            }
+        }
+    }
+
+    private static void applyRecord(TaskList tL, String record) throws AftonException {
+        int separator = record.indexOf(" | ");
+        String payload = record.substring(separator + 3);
+        switch (record.substring(0, separator)) {
+        case ADD_RECORD:
+            Task t = TaskDataReader.parseTask(payload);
+            if (t == null) {
+                throw new IndexOutOfBoundsException("Malformed task record");
+            }
+            tL.restoreTask(t);
+            break;
+        case MARK_RECORD:
+            tL.mark(Integer.parseInt(payload));
+            break;
+        case UNMARK_RECORD:
+            tL.unmark(Integer.parseInt(payload));
+            break;
+        case DELETE_RECORD:
+            tL.remove(Integer.parseInt(payload));
+            break;
+        default:
             throw new AftonException("Someone messed with my files...");
         }
     }
 
-    private LocalDateTime formatDate(String dateString) {
-        return LocalDateTime.parse(dateString, DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm"));
+    private Path getSiblingPath(String suffix) {
+        return filePath.resolveSibling(filePath.getFileName() + suffix);
     }
 }
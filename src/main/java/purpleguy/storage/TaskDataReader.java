@@ -0,0 +1,241 @@
+package purpleguy.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.LongConsumer;
+
+import purpleguy.Deadline;
+import purpleguy.Event;
+import purpleguy.Task;
+import purpleguy.ToDo;
+import purpleguy.exception.AftonException;
+import purpleguy.tasklist.TaskList;
+
+/**
+ * Streams tasks out of the text storage format one line at a time.
+ * Each line starts with the task's ID, and a "#next" header line holds the ID the next added task will be given;
+ * ledgers saved before IDs were stored have neither, and their tasks are numbered again from 1.
+ * Fields are found by scanning for the '|' delimiters by hand, and dates in the usual
+ * "MMM dd yyyy HH:mm" shape are decoded without going through the formatter.
+ */
+class TaskDataReader {
+    static final int PROGRESS_INTERVAL = 100_000;
+    static final String NEXT_ID_HEADER = "#next ";
+
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+    private static final int DATE_LENGTH = 17;
+
+    private final BufferedReader reader;
+    private final LongConsumer progressListener;
+
+    /**
+     * Creates a reader over text-format task data
+     * @param reader Source of the task data
+     * @param progressListener Told the number of lines read so far, every PROGRESS_INTERVAL lines,
+     *     and the final count once reading ends if any progress was reported
+     */
+    TaskDataReader(BufferedReader reader, LongConsumer progressListener) {
+        this.reader = reader;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Reads every task and appends it to the taskList, keeping its stored ID
+     * @param tL The current taskList
+     * @return The journal generation found in the header, or 0 if there is none
+     * @throws AftonException If a line is malformed, naming the offending line
+     */
+    long readInto(TaskList tL) throws IOException, AftonException {
+        long generation = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber % PROGRESS_INTERVAL == 0) {
+                progressListener.accept(lineNumber);
+            }
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith(Journal.GENERATION_HEADER)) {
+                generation = parseHeader(line, Journal.GENERATION_HEADER, lineNumber);
+                continue;
+            }
+            if (line.startsWith(NEXT_ID_HEADER)) {
+                tL.restoreNextId(parseHeader(line, NEXT_ID_HEADER, lineNumber));
+                continue;
+            }
+            if (line.startsWith(SnapshotFile.CHECKSUM_TRAILER)) {
+                continue;
+            }
+            Task t = parseTask(line);
+            if (t == null) {
+                throw new AftonException("Someone messed with my files... (line " + lineNumber + ")");
+            }
+            tL.restoreTask(t);
+        }
+        if (lineNumber >= PROGRESS_INTERVAL) {
+            progressListener.accept(lineNumber);
+        }
+        return generation;
+    }
+
+    /**
+     * Encodes a task as a single line of task data, led by its ID
+     * @param task The task to encode
+     * @return Line in the form "id | type | status | name [| time]"
+     */
+    static String toLine(Task task) {
+        return task.getId() + " | " + task.toData();
+    }
+
+    /**
+     * Decodes a single line of task data
+     * @param line Line in the form "[id |] type | status | name [| time]"
+     * @return The decoded task, carrying its stored ID if it has one, or null if the line is malformed
+     */
+    static Task parseTask(String line) {
+        int firstBar = line.indexOf('|');
+        if (firstBar < 0) {
+            return null;
+        }
+        int start = skipSpaces(line, 0, firstBar);
+        if (!Character.isDigit(line.charAt(start))) {
+            return parseFields(line, start, firstBar);
+        }
+        long id;
+        try {
+            id = Long.parseLong(trimmed(line, start, firstBar));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        Task t = parseFields(line, firstBar + 1, line.indexOf('|', firstBar + 1));
+        if (t == null || id <= 0) {
+            return null;
+        }
+        t.setId(id);
+        return t;
+    }
+
+    private static Task parseFields(String line, int start, int firstBar) {
+        int secondBar = firstBar < 0 ? -1 : line.indexOf('|', firstBar + 1);
+        if (secondBar < 0) {
+            return null;
+        }
+        int thirdBar = line.indexOf('|', secondBar + 1);
+        int nameEnd = thirdBar < 0 ? line.length() : thirdBar;
+        String name = trimmed(line, secondBar + 1, nameEnd);
+        char type = line.charAt(skipSpaces(line, start, firstBar));
+
+        try {
+            Task t;
+            switch (type) {
+            case 'T':
+                t = new ToDo(name);
+                break;
+            case 'D':
+                if (thirdBar < 0) {
+                    return null;
+                }
+                t = new Deadline(name, parseDate(line, thirdBar + 1, line.length()));
+                break;
+            case 'E':
+                if (thirdBar < 0) {
+                    return null;
+                }
+                int dash = line.indexOf('-', thirdBar + 1);
+                if (dash < 0) {
+                    return null;
+                }
+                t = new Event(name, parseDate(line, thirdBar + 1, dash), parseDate(line, dash + 1, line.length()));
+                break;
+            default:
+                return null;
+            }
+            if (line.charAt(skipSpaces(line, firstBar + 1, secondBar)) == 'X') {
+                t.mark();
+            }
+            return t;
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a date between the given positions, ignoring surrounding spaces
+     * Falls back to the shared formatter for anything that is not a plain English "MMM dd yyyy HH:mm".
+     */
+    static LocalDateTime parseDate(String line, int start, int end) {
+        int from = skipSpaces(line, start, end);
+        int to = end;
+        while (to > from && line.charAt(to - 1) == ' ') {
+            to--;
+        }
+        if (to - from == DATE_LENGTH) {
+            int month = findMonth(line, from);
+            int day = digits(line, from + 4, 2);
+            int year = digits(line, from + 7, 4);
+            int hour = digits(line, from + 12, 2);
+            int minute = digits(line, from + 15, 2);
+            if (month > 0 && day > 0 && year >= 0 && hour >= 0 && minute >= 0
+                    && line.charAt(from + 3) == ' ' && line.charAt(from + 6) == ' '
+                    && line.charAt(from + 11) == ' ' && line.charAt(from + 14) == ':') {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                } catch (DateTimeException e) {
+                    // Impossible dates are left to the formatter to report
+                }
+            }
+        }
+        return LocalDateTime.parse(line.substring(from, to), Task.DATE_FORMATTER);
+    }
+
+    private static long parseHeader(String line, String header, long lineNumber) throws AftonException {
+        try {
+            return Long.parseLong(line.substring(header.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new AftonException("Someone messed with my files... (line " + lineNumber + ")");
+        }
+    }
+
+    private static int findMonth(String line, int from) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (line.regionMatches(from, MONTHS[i], 0, 3)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int digits(String line, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int skipSpaces(String line, int from, int end) {
+        while (from < end && line.charAt(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static String trimmed(String line, int from, int end) {
+        int start = skipSpaces(line, from, end);
+        while (end > start && line.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return line.substring(start, end);
+    }
+}
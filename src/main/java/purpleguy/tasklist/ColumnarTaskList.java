@@ -0,0 +1,425 @@
+package purpleguy.tasklist;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import purpleguy.Deadline;
+import purpleguy.Event;
+import purpleguy.Task;
+import purpleguy.ToDo;
+
+/**
+ * TaskList which keeps its tasks in parallel primitive arrays instead of as Task objects.
+ * Each task costs a type byte, a mark bit, an index into a pool of interned names, an ID and two epoch-second longs,
+ * so very large ledgers take a fraction of the heap. Task objects are only created when a task is read,
+ * which makes them snapshots: changes must go through {@link #mark(int)} and {@link #unmark(int)}.
+ * Searches go through a trigram index over the distinct names and interval trees over the deadline and event times,
+ * which hold task IDs rather than Task objects; each match is then found in the columns by its ID.
+ * Deleting shifts the later entries of each column down; with primitive arrays that is a plain memory move,
+ * so the tombstones used by ObjectTaskList would cost more than they save.
+ * Snapshots copy the columns under the lock and only create their Task objects when read,
+ * so a snapshot being written to disk holds the lock for a few array copies rather than the whole write.
+ */
+public class ColumnarTaskList extends TaskList {
+    private static final byte TODO_TYPE = 0;
+    private static final byte DEADLINE_TYPE = 1;
+    private static final byte EVENT_TYPE = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] nameIds = new int[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long nextId = 1;
+    private final BitSet marks = new BitSet();
+    private int size;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIdsByName = new HashMap<>();
+    private final NameIndex nameIndex = new NameIndex();
+    // Deadlines are kept as intervals which start and end at their due time
+    private final IntervalTree deadlines = new IntervalTree();
+    private final IntervalTree events = new IntervalTree();
+
+    private final Object lock = new Object();
+    private volatile List<Task> snapshot;
+
+    @Override
+    public void addTask(Task task) {
+        synchronized (lock) {
+            task.setId(nextId++);
+            append(task);
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+        synchronized (lock) {
+            if (size > 0 && task.getId() <= ids[size - 1] || task.getId() <= 0) {
+                task.setId(nextId);
+            }
+            nextId = Math.max(nextId, task.getId() + 1);
+            append(task);
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public long getNextId() {
+        synchronized (lock) {
+            return nextId;
+        }
+    }
+
+    @Override
+    public void restoreNextId(long nextId) {
+        synchronized (lock) {
+            this.nextId = Math.max(this.nextId, nextId);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Creates a Task holding the current state of the task at the given index
+     */
+    @Override
+    public Task get(int i) {
+        synchronized (lock) {
+            checkIndex(i);
+            return createTask(i);
+        }
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        synchronized (lock) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return i < 0 ? -1 : i;
+        }
+    }
+
+    @Override
+    public void mark(int i) {
+        synchronized (lock) {
+            checkIndex(i);
+            marks.set(i);
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void unmark(int i) {
+        synchronized (lock) {
+            checkIndex(i);
+            marks.clear(i);
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void markAll(int[] indexes) {
+        synchronized (lock) {
+            for (int i : indexes) {
+                checkIndex(i);
+                marks.set(i);
+            }
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void unmarkAll(int[] indexes) {
+        synchronized (lock) {
+            for (int i : indexes) {
+                checkIndex(i);
+                marks.clear(i);
+            }
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void remove(int i) {
+        synchronized (lock) {
+            checkIndex(i);
+            unindex(i);
+            shiftDown(i);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Removes every task at the given indexes, moving each remaining task at most once
+     */
+    @Override
+    public void removeAll(int[] indexes) {
+        if (indexes.length == 0) {
+            return;
+        }
+        synchronized (lock) {
+            for (int i : indexes) {
+                checkIndex(i);
+                unindex(i);
+            }
+            compactAround(indexes);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the tasks in this list, in order
+     * The snapshot is shared until the list next changes.
+     * Its tasks are created from the copied columns as they are read.
+     */
+    @Override
+    public List<Task> getTasks() {
+        List<Task> tasks = snapshot;
+        if (tasks != null) {
+            return tasks;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                snapshot = new Snapshot(this);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Creates only the tasks on the page, without copying the columns
+     */
+    @Override
+    public List<Task> getTasks(int from, int to) {
+        synchronized (lock) {
+            int end = Math.min(to, size);
+            List<Task> page = new ArrayList<>(Math.max(0, end - from));
+            for (int i = from; i < end; i++) {
+                page.add(createTask(i));
+            }
+            return Collections.unmodifiableList(page);
+        }
+    }
+
+    /**
+     * Each distinct name is only checked once, however many tasks share it.
+     */
+    @Override
+    public List<Task> findTasks(String s) {
+        synchronized (lock) {
+            long[] matches = nameIndex.find(s);
+            List<Task> results = new ArrayList<>(matches.length);
+            for (long id : matches) {
+                results.add(createTask(Arrays.binarySearch(ids, 0, size, id)));
+            }
+            return results;
+        }
+    }
+
+    @Override
+    public List<Task> findDeadlines(LocalDateTime from, LocalDateTime to) {
+        synchronized (lock) {
+            return collectOverlapping(deadlines, from, to);
+        }
+    }
+
+    @Override
+    public List<Task> findEvents(LocalDateTime from, LocalDateTime to) {
+        synchronized (lock) {
+            return collectOverlapping(events, from, to);
+        }
+    }
+
+    /**
+     * Creates the tasks whose intervals in the tree overlap the window, earliest start first and in list order
+     * among equal starts, since the tree breaks ties by task ID
+     */
+    private List<Task> collectOverlapping(IntervalTree tree, LocalDateTime from, LocalDateTime to) {
+        List<Task> results = new ArrayList<>();
+        tree.collectOverlappingKeys(toEpochSecond(from), toEpochSecond(to),
+            id -> results.add(createTask(Arrays.binarySearch(ids, 0, size, id))));
+        return results;
+    }
+
+    private void append(Task task) {
+        ensureCapacity(size + 1);
+        if (task instanceof Deadline) {
+            types[size] = DEADLINE_TYPE;
+            starts[size] = toEpochSecond(((Deadline) task).getDeadline());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            types[size] = EVENT_TYPE;
+            starts[size] = toEpochSecond(event.getStart());
+            ends[size] = toEpochSecond(event.getEnd());
+        } else {
+            types[size] = TODO_TYPE;
+        }
+        ids[size] = task.getId();
+        nameIds[size] = intern(task);
+        marks.set(size, task.isMarked());
+        index(size);
+        size++;
+    }
+
+    private void index(int i) {
+        nameIndex.addTask(nameIds[i], ids[i]);
+        if (types[i] == DEADLINE_TYPE) {
+            deadlines.insert(starts[i], starts[i], ids[i], null);
+        } else if (types[i] == EVENT_TYPE) {
+            events.insert(starts[i], ends[i], ids[i], null);
+        }
+    }
+
+    private void unindex(int i) {
+        nameIndex.removeTask(nameIds[i], ids[i]);
+        if (types[i] == DEADLINE_TYPE) {
+            deadlines.delete(starts[i], ids[i]);
+        } else if (types[i] == EVENT_TYPE) {
+            events.delete(starts[i], ids[i]);
+        }
+    }
+
+    private void shiftDown(int i) {
+        int tailLength = size - i - 1;
+        System.arraycopy(types, i + 1, types, i, tailLength);
+        System.arraycopy(nameIds, i + 1, nameIds, i, tailLength);
+        System.arraycopy(starts, i + 1, starts, i, tailLength);
+        System.arraycopy(ends, i + 1, ends, i, tailLength);
+        System.arraycopy(ids, i + 1, ids, i, tailLength);
+        BitSet tailMarks = marks.get(i + 1, size);
+        marks.clear(i, size);
+        for (int bit = tailMarks.nextSetBit(0); bit >= 0; bit = tailMarks.nextSetBit(bit + 1)) {
+            marks.set(i + bit);
+        }
+        size--;
+    }
+
+    private void compactAround(int[] indexes) {
+        int write = indexes[0];
+        int next = 0;
+        for (int read = indexes[0]; read < size; read++) {
+            if (next < indexes.length && indexes[next] == read) {
+                next++;
+                continue;
+            }
+            types[write] = types[read];
+            nameIds[write] = nameIds[read];
+            starts[write] = starts[read];
+            ends[write] = ends[read];
+            ids[write] = ids[read];
+            marks.set(write, marks.get(read));
+            write++;
+        }
+        marks.clear(write, size);
+        size = write;
+    }
+
+    private Task createTask(int i) {
+        return createTask(types[i], names.get(nameIds[i]), starts[i], ends[i], marks.get(i), ids[i]);
+    }
+
+    private static Task createTask(byte type, String name, long start, long end, boolean isMarked, long id) {
+        Task task;
+        switch (type) {
+        case DEADLINE_TYPE:
+            task = new Deadline(name, fromEpochSecond(start));
+            break;
+        case EVENT_TYPE:
+            task = new Event(name, fromEpochSecond(start), fromEpochSecond(end));
+            break;
+        default:
+            task = new ToDo(name);
+            break;
+        }
+        if (isMarked) {
+            task.mark();
+        }
+        task.setId(id);
+        return task;
+    }
+
+    private int intern(Task task) {
+        Integer id = nameIdsByName.get(task.getName());
+        if (id == null) {
+            id = nameIndex.addName(task.getLowerCaseName());
+            names.add(task.getName());
+            nameIdsByName.put(task.getName(), id);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, types.length * 2);
+        types = Arrays.copyOf(types, newCapacity);
+        nameIds = Arrays.copyOf(nameIds, newCapacity);
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        }
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Copy of the columns at one point in time, which creates each task as it is read
+     */
+    private static class Snapshot extends AbstractList<Task> {
+        private final byte[] types;
+        private final int[] nameIds;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] ids;
+        private final BitSet marks;
+        private final String[] names;
+
+        Snapshot(ColumnarTaskList list) {
+            int size = list.size;
+            types = Arrays.copyOf(list.types, size);
+            nameIds = Arrays.copyOf(list.nameIds, size);
+            starts = Arrays.copyOf(list.starts, size);
+            ends = Arrays.copyOf(list.ends, size);
+            ids = Arrays.copyOf(list.ids, size);
+            marks = (BitSet) list.marks.clone();
+            names = list.names.toArray(new String[0]);
+        }
+
+        @Override
+        public Task get(int i) {
+            return createTask(types[i], names[nameIds[i]], starts[i], ends[i], marks.get(i), ids[i]);
+        }
+
+        @Override
+        public int size() {
+            return types.length;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package purpleguy.tasklist;
+
+import java.util.Arrays;
+
+/**
+ * Binary indexed tree counting the live slots of an ObjectTaskList.
+ * Turns a position in the list into its slot, and a slot back into its position, in O(log n)
+ * however many deleted slots lie in between.
+ */
+class FenwickTree {
+    private int[] tree = new int[17];
+    private int size;
+
+    /**
+     * Adds a slot to the end
+     * @param value 1 if the slot holds a task, 0 if it is empty
+     */
+    void append(int value) {
+        size++;
+        if (size == tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        tree[size] = value + prefixSum(size - 1) - prefixSum(size - Integer.lowestOneBit(size));
+    }
+
+    /**
+     * Adds delta to the count of a slot
+     * @param slot Zero-based slot
+     */
+    void add(int slot, int delta) {
+        for (int i = slot + 1; i <= size; i += Integer.lowestOneBit(i)) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Counts the live slots before the given slot
+     * @param slot Zero-based slot, or the number of slots to count over
+     */
+    int prefixSum(int slot) {
+        int sum = 0;
+        for (int i = slot; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the slot holding the live task at the given position
+     * @param position Zero-based position among the live slots, which must exist
+     * @return Zero-based slot
+     */
+    int findSlot(int position) {
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            if (slot + step <= size && tree[slot + step] < remaining) {
+                slot += step;
+                remaining -= tree[slot];
+            }
+        }
+        return slot;
+    }
+
+    void clear() {
+        Arrays.fill(tree, 0, size + 1, 0);
+        size = 0;
+    }
+}
@@ -0,0 +1,190 @@
+package purpleguy.tasklist;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import purpleguy.Task;
+
+/**
+ * Randomised balanced search tree of closed time intervals, ordered by start time.
+ * Each node also tracks the latest end time in its subtree, so overlap queries skip
+ * every subtree that ends before the query window.
+ */
+class IntervalTree {
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Inserts an interval
+     * @param start Start of the interval in epoch seconds
+     * @param end End of the interval in epoch seconds
+     * @param key Unique number that orders intervals sharing a start time
+     * @param task Task the interval belongs to, or null if only its key is needed
+     */
+    void insert(long start, long end, long key, Task task) {
+        root = insert(root, new Node(start, end, key, task, random.nextInt()));
+    }
+
+    /**
+     * Deletes the interval with the given start time and key, if present
+     */
+    void delete(long start, long key) {
+        root = delete(root, start, key);
+    }
+
+    /**
+     * Points the interval with the given start time and key at another task, if present
+     */
+    void replace(long start, long key, Task task) {
+        Node node = root;
+        while (node != null) {
+            int comparison = compare(start, key, node);
+            if (comparison == 0) {
+                node.task = task;
+                return;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+    }
+
+    /**
+     * Collects every task whose interval overlaps the window, ordered by start time
+     * @param from Start of the window in epoch seconds
+     * @param to End of the window in epoch seconds
+     * @param results List the overlapping tasks are appended to
+     */
+    void collectOverlapping(long from, long to, List<Task> results) {
+        collect(root, from, to, node -> results.add(node.task));
+    }
+
+    /**
+     * Collects the key of every interval overlapping the window, ordered by start time and then by key
+     * @param from Start of the window in epoch seconds
+     * @param to End of the window in epoch seconds
+     * @param keys Receives each overlapping key in turn
+     */
+    void collectOverlappingKeys(long from, long to, LongConsumer keys) {
+        collect(root, from, to, node -> keys.accept(node.key));
+    }
+
+    private static void collect(Node node, long from, long to, Consumer<Node> visitor) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collect(node.left, from, to, visitor);
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            visitor.accept(node);
+        }
+        collect(node.right, from, to, visitor);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (newNode.priority > node.priority) {
+            Node[] parts = split(node, newNode.start, newNode.key);
+            newNode.left = parts[0];
+            newNode.right = parts[1];
+            return newNode.update();
+        }
+        if (compare(newNode.start, newNode.key, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return node.update();
+    }
+
+    private static Node delete(Node node, long start, long key) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, key, node);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = delete(node.left, start, key);
+        } else {
+            node.right = delete(node.right, start, key);
+        }
+        return node.update();
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before (start, key) and the rest
+     */
+    private static Node[] split(Node node, long start, long key) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(start, key, node) <= 0) {
+            Node[] parts = split(node.left, start, key);
+            node.left = parts[1];
+            return new Node[] {parts[0], node.update()};
+        }
+        Node[] parts = split(node.right, start, key);
+        node.right = parts[0];
+        return new Node[] {node.update(), parts[1]};
+    }
+
+    /**
+     * Joins two subtrees where every node of the first is ordered before every node of the second
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            return first.update();
+        }
+        second.left = merge(first, second.left);
+        return second.update();
+    }
+
+    private static int compare(long start, long key, Node node) {
+        int comparison = Long.compare(start, node.start);
+        return comparison != 0 ? comparison : Long.compare(key, node.key);
+    }
+
+    private static class Node {
+        private final long start;
+        private final long end;
+        private final long key;
+        private Task task;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(long start, long end, long key, Task task, int priority) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.task = task;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        Node update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package purpleguy.tasklist;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import purpleguy.Task;
+import purpleguy.exception.UnreadableLedgerException;
+
+/**
+ * ObjectTaskList which can be handed a ledger before any of its tasks have been decoded.
+ * Its size counts the tasks still waiting in the {@link Source}, and they are decoded a run at a time, in order,
+ * as soon as something reaches them: reading or changing a task decodes up to that task, while adding a task,
+ * searching or taking a snapshot decodes the rest. {@link #warmInBackground()} decodes whatever is left on its
+ * own thread, so the first page of a large ledger can be shown long before the last one is read.
+ * Decoding takes its own lock before the ObjectTaskList's, and is skipped altogether once nothing is left to decode.
+ * If a run cannot be decoded, the failure is kept: every later access which needs a task at or past it throws the
+ * same {@link UnreadableLedgerException}, so nothing is ever read at the wrong position or saved without it.
+ */
+public class LazyTaskList extends ObjectTaskList {
+    /**
+     * Supplies the tasks of a ledger one run at a time, in the order they are stored
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Decodes the next run of tasks
+         * @return The decoded tasks, never empty while any remain
+         * @throws UnreadableLedgerException If the stored tasks cannot be read
+         */
+        List<Task> next();
+    }
+
+    private final Object loadLock = new Object();
+    private Source source;
+    private volatile int undecodedCount;
+    private volatile UnreadableLedgerException failure;
+
+    /**
+     * Hands over the tasks of a ledger, to be decoded and added to the end of this list as they are needed
+     * @param taskCount Number of tasks the source holds
+     * @param source Source which decodes them
+     */
+    public void attach(int taskCount, Source source) {
+        synchronized (loadLock) {
+            loadAll();
+            this.source = source;
+            undecodedCount = taskCount;
+        }
+    }
+
+    /**
+     * Starts decoding the remaining tasks on a daemon thread
+     */
+    public void warmInBackground() {
+        if (undecodedCount == 0) {
+            return;
+        }
+        Thread warmer = new Thread(() -> {
+            try {
+                loadAll();
+            } catch (UnreadableLedgerException e) {
+                // The failure is kept, and reported by the next command which reaches the broken tasks
+            }
+        }, "purpleguy-warmer");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Returns whether every task has been decoded
+     */
+    public boolean isLoaded() {
+        return undecodedCount == 0;
+    }
+
+    /**
+     * Returns whether some of the tasks could not be decoded
+     */
+    public boolean isUnreadable() {
+        return failure != null;
+    }
+
+    @Override
+    public void addTask(Task task) {
+        loadAll();
+        super.addTask(task);
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+        loadAll();
+        super.restoreTask(task);
+    }
+
+    @Override
+    public int size() {
+        if (undecodedCount == 0) {
+            return super.size();
+        }
+        synchronized (loadLock) {
+            return super.size() + undecodedCount;
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        loadThrough(index);
+        return super.get(index);
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        int index = super.indexOfId(id);
+        while (index < 0 && decodeNext()) {
+            index = super.indexOfId(id);
+        }
+        return index;
+    }
+
+    @Override
+    public void mark(int i) {
+        loadThrough(i);
+        super.mark(i);
+    }
+
+    @Override
+    public void unmark(int i) {
+        loadThrough(i);
+        super.unmark(i);
+    }
+
+    @Override
+    public void markAll(int[] indexes) {
+        loadThrough(max(indexes));
+        super.markAll(indexes);
+    }
+
+    @Override
+    public void unmarkAll(int[] indexes) {
+        loadThrough(max(indexes));
+        super.unmarkAll(indexes);
+    }
+
+    @Override
+    public void remove(int i) {
+        loadThrough(i);
+        super.remove(i);
+    }
+
+    @Override
+    public void removeAll(int[] indexes) {
+        loadThrough(max(indexes));
+        super.removeAll(indexes);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        loadAll();
+        return super.getTasks();
+    }
+
+    /**
+     * Only decodes up to the end of the page
+     */
+    @Override
+    public List<Task> getTasks(int from, int to) {
+        loadThrough(to - 1);
+        return super.getTasks(from, to);
+    }
+
+    @Override
+    public List<Task> findTasks(String s) {
+        loadAll();
+        return super.findTasks(s);
+    }
+
+    @Override
+    public List<Task> findDeadlines(LocalDateTime from, LocalDateTime to) {
+        loadAll();
+        return super.findDeadlines(from, to);
+    }
+
+    @Override
+    public List<Task> findEvents(LocalDateTime from, LocalDateTime to) {
+        loadAll();
+        return super.findEvents(from, to);
+    }
+
+    /**
+     * Decodes tasks until the one at the given index has been added, or none are left
+     * The ObjectTaskList's own bulk methods call back into this class while holding its lock, so they are only
+     * reached once their indexes have been decoded and this returns without taking the load lock.
+     */
+    private void loadThrough(int index) {
+        while (undecodedCount > 0 && index >= super.size() && decodeNext()) {
+            // Keep decoding until the index is reached
+        }
+    }
+
+    private void loadAll() {
+        while (decodeNext()) {
+            // Keep decoding until the source runs out
+        }
+    }
+
+    private boolean decodeNext() {
+        if (undecodedCount == 0) {
+            return false;
+        }
+        synchronized (loadLock) {
+            if (undecodedCount == 0) {
+                return false;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            List<Task> tasks;
+            try {
+                tasks = source.next();
+                if (tasks.isEmpty()) {
+                    throw new UnreadableLedgerException("Someone messed with my files...", null);
+                }
+            } catch (UnreadableLedgerException e) {
+                failure = e;
+                throw e;
+            }
+            for (Task task : tasks) {
+                super.restoreTask(task);
+            }
+            undecodedCount = Math.max(0, undecodedCount - tasks.size());
+            if (undecodedCount == 0) {
+                source = null;
+            }
+            return true;
+        }
+    }
+
+    private static int max(int[] indexes) {
+        int max = -1;
+        for (int i : indexes) {
+            max = Math.max(max, i);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,118 @@
+package purpleguy.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over the distinct names of a ColumnarTaskList, along with the IDs of the tasks holding each name.
+ * It keeps name numbers and task IDs instead of Task objects, so the columns stay the only copy of every task,
+ * and a search checks each candidate name once however many tasks share it.
+ */
+class NameIndex {
+    private final Map<Long, TaskIndex.Postings> postings = new HashMap<>();
+    private final List<String> lowerCaseNames = new ArrayList<>();
+    private final List<TaskIds> taskIds = new ArrayList<>();
+
+    /**
+     * Indexes a name which no task has used before
+     * @param lowerCaseName The name in lowercase
+     * @return Number of the name, counting up from 0
+     */
+    int addName(String lowerCaseName) {
+        int nameId = lowerCaseNames.size();
+        lowerCaseNames.add(lowerCaseName);
+        taskIds.add(new TaskIds());
+        for (int i = 0; i + TaskIndex.GRAM_LENGTH <= lowerCaseName.length(); i++) {
+            postings.computeIfAbsent(TaskIndex.gramAt(lowerCaseName, i), k -> new TaskIndex.Postings())
+                .addOnce(nameId);
+        }
+        return nameId;
+    }
+
+    /**
+     * Records a task holding the given name
+     * @param nameId Number of the name
+     * @param id ID of the task, greater than that of any task added before it
+     */
+    void addTask(int nameId, long id) {
+        taskIds.get(nameId).add(id);
+    }
+
+    /**
+     * Forgets a task holding the given name
+     * @param nameId Number of the name
+     * @param id ID of the task
+     */
+    void removeTask(int nameId, long id) {
+        taskIds.get(nameId).remove(id);
+    }
+
+    /**
+     * Finds every task whose name contains the given lowercase substring
+     * Searches shorter than a trigram check every distinct name instead of going through the postings.
+     * @param s Substring to search for
+     * @return IDs of the matching tasks in ascending order, which is also their order in the list
+     */
+    long[] find(String s) {
+        TaskIndex.Postings candidates = null;
+        for (int i = 0; i + TaskIndex.GRAM_LENGTH <= s.length(); i++) {
+            TaskIndex.Postings gramPostings = postings.get(TaskIndex.gramAt(s, i));
+            if (gramPostings == null) {
+                return new long[0];
+            }
+            if (candidates == null || gramPostings.size < candidates.size) {
+                candidates = gramPostings;
+            }
+        }
+        int candidateCount = candidates == null ? lowerCaseNames.size() : candidates.size;
+        long[] matches = new long[0];
+        int matchCount = 0;
+        int matchedNames = 0;
+        for (int k = 0; k < candidateCount; k++) {
+            int nameId = candidates == null ? k : candidates.sequences[k];
+            TaskIds nameTasks = taskIds.get(nameId);
+            if (nameTasks.size == 0 || !lowerCaseNames.get(nameId).contains(s)) {
+                continue;
+            }
+            if (matchCount + nameTasks.size > matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(matchCount + nameTasks.size, matches.length * 2));
+            }
+            System.arraycopy(nameTasks.ids, 0, matches, matchCount, nameTasks.size);
+            matchCount += nameTasks.size;
+            matchedNames++;
+        }
+        long[] results = Arrays.copyOf(matches, matchCount);
+        if (matchedNames > 1) {
+            // Each name's IDs are already ascending, but those of different names interleave
+            Arrays.sort(results);
+        }
+        return results;
+    }
+
+    /**
+     * Growable, ascending list of the IDs of the tasks holding one name
+     */
+    private static class TaskIds {
+        private long[] ids = new long[1];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package purpleguy.tasklist;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import purpleguy.Task;
+
+/**
+ * TaskList which keeps each task as a Task object, along with indexes for searching them by name and by time.
+ * Every task gets an ID when it is added, counting up from 1, which does not shift when other tasks are deleted.
+ * Tasks restored from storage keep their stored IDs, so the IDs stay in ascending order either way.
+ * Deleted tasks leave an empty slot behind, so deleting is O(log n) instead of shifting every later task,
+ * and the empty slots are compacted away once they outnumber the tasks.
+ * Changes take a private lock, while {@link #getTasks()} and {@link #toData()} read an immutable snapshot
+ * which is only rebuilt after the list changes, so a snapshot being written to disk never holds up a command.
+ * Marking a task that a snapshot may hold swaps in a marked copy instead of changing the shared task.
+ */
+public class ObjectTaskList extends TaskList {
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private ArrayList<Task> tL;
+    private long[] slotIds;
+    private FenwickTree liveSlots;
+    private int liveCount;
+    private long nextId = 1;
+    private TaskIndex index;
+    private TimeIndex timeIndex;
+    private final Object lock = new Object();
+    private volatile List<Task> snapshot;
+    private int sharedSlotCount;
+
+    public ObjectTaskList() {
+        tL = new ArrayList<Task>();
+        slotIds = new long[16];
+        liveSlots = new FenwickTree();
+        index = new TaskIndex();
+        timeIndex = new TimeIndex();
+    }
+
+    @Override
+    public void addTask(Task task) {
+        synchronized (lock) {
+            task.setId(nextId++);
+            append(task);
+        }
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+        synchronized (lock) {
+            int slotCount = tL.size();
+            if (slotCount > 0 && task.getId() <= slotIds[slotCount - 1] || task.getId() <= 0) {
+                task.setId(nextId);
+            }
+            nextId = Math.max(nextId, task.getId() + 1);
+            append(task);
+        }
+    }
+
+    @Override
+    public long getNextId() {
+        synchronized (lock) {
+            return nextId;
+        }
+    }
+
+    @Override
+    public void restoreNextId(long nextId) {
+        synchronized (lock) {
+            this.nextId = Math.max(this.nextId, nextId);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (lock) {
+            return liveCount;
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        synchronized (lock) {
+            return tL.get(slotOf(index));
+        }
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        synchronized (lock) {
+            int slot = Arrays.binarySearch(slotIds, 0, tL.size(), id);
+            if (slot < 0 || tL.get(slot) == null) {
+                return -1;
+            }
+            return liveSlots.prefixSum(slot);
+        }
+    }
+
+    @Override
+    public void mark(int i) {
+        setStatus(i, true);
+    }
+
+    @Override
+    public void unmark(int i) {
+        setStatus(i, false);
+    }
+
+    @Override
+    public void markAll(int[] indexes) {
+        synchronized (lock) {
+            for (int i : indexes) {
+                mark(i);
+            }
+        }
+    }
+
+    @Override
+    public void unmarkAll(int[] indexes) {
+        synchronized (lock) {
+            for (int i : indexes) {
+                unmark(i);
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(int[] indexes) {
+        synchronized (lock) {
+            for (int k = indexes.length - 1; k >= 0; k--) {
+                remove(indexes[k]);
+            }
+        }
+    }
+
+    @Override
+    public void remove(int i) {
+        synchronized (lock) {
+            int slot = slotOf(i);
+            Task removed = tL.set(slot, null);
+            liveSlots.add(slot, -1);
+            liveCount--;
+            index.remove(removed, this::collectLiveTasks);
+            timeIndex.remove(removed);
+            int deadCount = tL.size() - liveCount;
+            if (deadCount > MIN_COMPACTION_SIZE && deadCount > liveCount) {
+                compact();
+            }
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        List<Task> tasks = snapshot;
+        if (tasks != null) {
+            return tasks;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                snapshot = collectLiveTasks();
+                sharedSlotCount = tL.size();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Reads the page from the current snapshot if there is one, and otherwise copies only the tasks on the page
+     * rather than rebuilding the whole snapshot
+     */
+    @Override
+    public List<Task> getTasks(int from, int to) {
+        List<Task> tasks = snapshot;
+        if (tasks != null) {
+            return slice(tasks, from, to);
+        }
+        synchronized (lock) {
+            int end = Math.min(to, liveCount);
+            if (from >= end) {
+                return List.of();
+            }
+            List<Task> page = new ArrayList<>(end - from);
+            for (int slot = slotOf(from); page.size() < end - from; slot++) {
+                if (tL.get(slot) != null) {
+                    page.add(tL.get(slot));
+                }
+            }
+            return Collections.unmodifiableList(page);
+        }
+    }
+
+    /**
+     * Searches of at least three characters go through the trigram index instead of scanning every task
+     */
+    @Override
+    public List<Task> findTasks(String s) {
+        if (s.length() < TaskIndex.GRAM_LENGTH) {
+            return getTasks().stream().filter(x -> x.containsString(s)).toList();
+        }
+        synchronized (lock) {
+            return index.find(s);
+        }
+    }
+
+    @Override
+    public List<Task> findDeadlines(LocalDateTime from, LocalDateTime to) {
+        synchronized (lock) {
+            return timeIndex.findDeadlines(from, to);
+        }
+    }
+
+    @Override
+    public List<Task> findEvents(LocalDateTime from, LocalDateTime to) {
+        synchronized (lock) {
+            return timeIndex.findEvents(from, to);
+        }
+    }
+
+    /**
+     * Changes the status of the task at the given index
+     * Tasks which were in the list when the last snapshot was taken are replaced by a copy, leaving the snapshot as is.
+     */
+    private void setStatus(int i, boolean isMarked) {
+        synchronized (lock) {
+            int slot = slotOf(i);
+            Task task = tL.get(slot);
+            if (task.isMarked() == isMarked) {
+                return;
+            }
+            if (slot >= sharedSlotCount) {
+                if (isMarked) {
+                    task.mark();
+                } else {
+                    task.unmark();
+                }
+            } else {
+                Task copy = task.withStatus(isMarked);
+                tL.set(slot, copy);
+                index.replace(task, copy);
+                timeIndex.replace(task, copy);
+            }
+            snapshot = null;
+        }
+    }
+
+    private List<Task> collectLiveTasks() {
+        return tL.stream().filter(Objects::nonNull).toList();
+    }
+
+    private int slotOf(int i) {
+        if (i < 0 || i >= liveCount) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + liveCount);
+        }
+        return liveSlots.findSlot(i);
+    }
+
+    private void append(Task task) {
+        appendSlot(task);
+        liveCount++;
+        index.add(task);
+        timeIndex.add(task);
+        snapshot = null;
+    }
+
+    private void appendSlot(Task task) {
+        int slot = tL.size();
+        if (slot == slotIds.length) {
+            slotIds = Arrays.copyOf(slotIds, slot * 2);
+        }
+        slotIds[slot] = task.getId();
+        tL.add(task);
+        liveSlots.append(1);
+    }
+
+    /**
+     * Drops the empty slots left behind by deleted tasks
+     * Only runs once there are more empty slots than tasks, so its cost is spread over at least as many deletes.
+     */
+    private void compact() {
+        List<Task> liveTasks = collectLiveTasks();
+        tL = new ArrayList<Task>(liveTasks.size());
+        liveSlots.clear();
+        for (Task task : liveTasks) {
+            appendSlot(task);
+        }
+        // Any of the moved tasks may still be held by a snapshot
+        sharedSlotCount = tL.size();
+    }
+}
@@ -0,0 +1,131 @@
+package purpleguy.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import purpleguy.Task;
+
+/**
+ * Trigram index over the lowercased task names, used to answer substring searches.
+ * Every task gets an increasing sequence number when added, so posting lists stay in list order.
+ * Removed tasks leave dead entries behind which are dropped once they outnumber the live ones.
+ */
+class TaskIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private static final int MIN_REBUILD_SIZE = 1024;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Task, Integer> sequenceNumbers = new IdentityHashMap<>();
+    private final ArrayList<Task> tasksBySequence = new ArrayList<>();
+    private int deadCount;
+
+    /**
+     * Indexes a task that was appended to the end of the list
+     * @param task The task that was added
+     */
+    void add(Task task) {
+        int sequence = tasksBySequence.size();
+        tasksBySequence.add(task);
+        sequenceNumbers.put(task, sequence);
+        String name = task.getLowerCaseName();
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            postings.computeIfAbsent(gramAt(name, i), k -> new Postings()).addOnce(sequence);
+        }
+    }
+
+    /**
+     * Drops a task from the index
+     * @param task The task that was removed
+     * @param liveTasks Supplies the tasks still in the list, in order, if the index needs rebuilding
+     */
+    void remove(Task task, Supplier<List<Task>> liveTasks) {
+        Integer sequence = sequenceNumbers.remove(task);
+        if (sequence == null) {
+            return;
+        }
+        tasksBySequence.set(sequence, null);
+        deadCount++;
+        if (deadCount > MIN_REBUILD_SIZE && deadCount > sequenceNumbers.size()) {
+            rebuild(liveTasks.get());
+        }
+    }
+
+    /**
+     * Swaps a task for a copy of it with the same name, keeping its place in the index
+     * @param task The task being replaced
+     * @param replacement The task taking its place
+     */
+    void replace(Task task, Task replacement) {
+        Integer sequence = sequenceNumbers.remove(task);
+        if (sequence == null) {
+            return;
+        }
+        sequenceNumbers.put(replacement, sequence);
+        tasksBySequence.set(sequence, replacement);
+    }
+
+    /**
+     * Finds every task whose name contains the given lowercase substring
+     * @param s Substring to search for, at least GRAM_LENGTH characters long
+     * @return Matching tasks in list order
+     */
+    List<Task> find(String s) {
+        assert s.length() >= GRAM_LENGTH;
+        Postings candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= s.length(); i++) {
+            Postings gramPostings = postings.get(gramAt(s, i));
+            if (gramPostings == null) {
+                return List.of();
+            }
+            if (candidates == null || gramPostings.size < candidates.size) {
+                candidates = gramPostings;
+            }
+        }
+        List<Task> results = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            Task task = tasksBySequence.get(candidates.sequences[i]);
+            if (task != null && task.containsString(s)) {
+                results.add(task);
+            }
+        }
+        return results;
+    }
+
+    private void rebuild(List<Task> liveTasks) {
+        postings.clear();
+        sequenceNumbers.clear();
+        tasksBySequence.clear();
+        deadCount = 0;
+        for (Task task : liveTasks) {
+            add(task);
+        }
+    }
+
+    static long gramAt(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Growable, ascending list of task sequence numbers, or of name numbers in a NameIndex
+     */
+    static class Postings {
+        int[] sequences = new int[2];
+        int size;
+
+        void addOnce(int sequence) {
+            if (size > 0 && sequences[size - 1] == sequence) {
+                return;
+            }
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            sequences[size++] = sequence;
+        }
+    }
+}
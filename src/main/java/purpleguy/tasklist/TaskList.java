@@ -1,44 +1,146 @@
 package purpleguy.tasklist;
-import java.util.ArrayList;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 import purpleguy.Task;
 
 /**
  * Stores and manages all tasks inputted into the program
+ * Every task gets an ID when it is added, counting up from 1, which does not shift when other tasks are deleted.
+ * {@link ObjectTaskList} keeps each task as an object, while {@link ColumnarTaskList} keeps them in primitive
+ * arrays for a much smaller heap. Both are safe to share between threads.
  */
-public class TaskList {
-    private ArrayList<Task> tL;
+public abstract class TaskList {
+    /**
+     * Adds a task to the end of the list, giving it the next ID
+     * @param task The task to add
+     */
+    public abstract void addTask(Task task);
 
-    public TaskList() {
-        tL = new ArrayList<Task>();
-    }
+    /**
+     * Adds a task read back from storage to the end of the list, keeping the ID it was stored with
+     * A task stored without an ID, or with one no higher than the last ID in the list, is given the next ID instead.
+     * @param task The task to add
+     */
+    public abstract void restoreTask(Task task);
 
-    public void addTask(Task task) {
-        tL.add(task);
-    }
+    /**
+     * Returns the ID the next added task will be given
+     */
+    public abstract long getNextId();
+
+    /**
+     * Raises the ID the next added task will be given, so that the IDs of deleted tasks are never handed out again
+     * @param nextId Lowest ID a later task may be given; lower values leave the list as is
+     */
+    public abstract void restoreNextId(long nextId);
 
     public boolean isEmpty() {
-        return tL.isEmpty();
+        return size() == 0;
     }
 
-    public int size() {
-        return tL.size();
-    }
+    public abstract int size();
 
-    public Task get(int index) {
-        return tL.get(index);
-    }
+    /**
+     * Returns the task at the given index
+     * @param index Zero-based index of the task
+     */
+    public abstract Task get(int index);
 
-    public void remove(int index) {
-        tL.remove(index);
-    }
+    /**
+     * Finds the current position of the task with the given ID
+     * @param id ID of the task
+     * @return Zero-based index of the task, or -1 if no task in the list has that ID
+     */
+    public abstract int indexOfId(long id);
+
+    /**
+     * Marks the task at the given index as complete
+     * @param i Zero-based index of the task
+     */
+    public abstract void mark(int i);
+
+    /**
+     * Marks the task at the given index as incomplete
+     * @param i Zero-based index of the task
+     */
+    public abstract void unmark(int i);
+
+    /**
+     * Marks every task at the given indexes as complete
+     * @param indexes Zero-based indexes of the tasks
+     */
+    public abstract void markAll(int[] indexes);
 
-    public List<Task> findTasks(String s) {
-        return tL.stream().filter(x -> x.containsString(s)).toList();
+    /**
+     * Marks every task at the given indexes as incomplete
+     * @param indexes Zero-based indexes of the tasks
+     */
+    public abstract void unmarkAll(int[] indexes);
+
+    /**
+     * Removes the task at the given index
+     * @param i Zero-based index of the task
+     */
+    public abstract void remove(int i);
+
+    /**
+     * Removes every task at the given indexes
+     * @param indexes Zero-based indexes of the tasks, in ascending order
+     */
+    public abstract void removeAll(int[] indexes);
+
+    /**
+     * Returns a snapshot of the tasks in this list, in order
+     * The snapshot is shared until the list next changes, and later changes never show up in it.
+     * @return Unmodifiable list of tasks
+     */
+    public abstract List<Task> getTasks();
+
+    /**
+     * Returns the tasks between the given indexes as they all stood at one moment, so that a page can be read
+     * while other threads change the list
+     * @param from Zero-based index of the first task
+     * @param to Index after the last task; fewer tasks are returned if the list is shorter
+     * @return Unmodifiable list of tasks
+     */
+    public List<Task> getTasks(int from, int to) {
+        return slice(getTasks(), from, to);
     }
 
+    /**
+     * Finds every task whose name contains the given lowercase substring
+     * @param s Substring to search for
+     * @return Matching tasks in list order
+     */
+    public abstract List<Task> findTasks(String s);
+
+    /**
+     * Finds every deadline due within the given window
+     * @param from Start of the window, inclusive
+     * @param to End of the window, inclusive
+     * @return Matching deadlines, earliest first
+     */
+    public abstract List<Task> findDeadlines(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds every event that overlaps the given window
+     * @param from Start of the window, inclusive
+     * @param to End of the window, inclusive
+     * @return Matching events, earliest start first
+     */
+    public abstract List<Task> findEvents(LocalDateTime from, LocalDateTime to);
+
     public List<String> toData() {
-        return tL.stream().map(x -> x.toData()).toList();
+        return getTasks().stream().map(x -> x.toData()).toList();
+    }
+
+    /**
+     * Returns the part of a snapshot between the given indexes, cut short at its end
+     */
+    protected static List<Task> slice(List<Task> tasks, int from, int to) {
+        int end = Math.min(to, tasks.size());
+        return tasks.subList(Math.min(from, end), end);
     }
 }
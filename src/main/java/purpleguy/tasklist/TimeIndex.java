@@ -0,0 +1,101 @@
+package purpleguy.tasklist;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import purpleguy.Deadline;
+import purpleguy.Event;
+import purpleguy.Task;
+
+/**
+ * Keeps Deadline tasks sorted by due time and Event tasks in an interval tree,
+ * so time-window queries only visit the tasks inside the window.
+ */
+class TimeIndex {
+    private final TreeMap<Long, List<Task>> deadlines = new TreeMap<>();
+    private final IntervalTree events = new IntervalTree();
+    private final Map<Task, Long> eventKeys = new IdentityHashMap<>();
+    private long nextEventKey;
+
+    void add(Task task) {
+        if (task instanceof Deadline) {
+            deadlines.computeIfAbsent(toEpochSecond(((Deadline) task).getDeadline()), k -> new ArrayList<>())
+                .add(task);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            long key = nextEventKey++;
+            eventKeys.put(task, key);
+            events.insert(toEpochSecond(event.getStart()), toEpochSecond(event.getEnd()), key, task);
+        }
+    }
+
+    void remove(Task task) {
+        if (task instanceof Deadline) {
+            long due = toEpochSecond(((Deadline) task).getDeadline());
+            List<Task> dueTasks = deadlines.get(due);
+            if (dueTasks != null) {
+                dueTasks.remove(task);
+                if (dueTasks.isEmpty()) {
+                    deadlines.remove(due);
+                }
+            }
+        } else if (task instanceof Event) {
+            Long key = eventKeys.remove(task);
+            if (key != null) {
+                events.delete(toEpochSecond(((Event) task).getStart()), key);
+            }
+        }
+    }
+
+    /**
+     * Swaps a task for a copy of it with the same times, keeping its place in the index
+     */
+    void replace(Task task, Task replacement) {
+        if (task instanceof Deadline) {
+            List<Task> dueTasks = deadlines.get(toEpochSecond(((Deadline) task).getDeadline()));
+            if (dueTasks != null) {
+                for (int i = 0; i < dueTasks.size(); i++) {
+                    if (dueTasks.get(i) == task) {
+                        dueTasks.set(i, replacement);
+                        return;
+                    }
+                }
+            }
+        } else if (task instanceof Event) {
+            Long key = eventKeys.remove(task);
+            if (key != null) {
+                eventKeys.put(replacement, key);
+                events.replace(toEpochSecond(((Event) task).getStart()), key, replacement);
+            }
+        }
+    }
+
+    /**
+     * Finds the deadlines falling within the window, earliest first
+     */
+    List<Task> findDeadlines(LocalDateTime from, LocalDateTime to) {
+        List<Task> results = new ArrayList<>();
+        for (List<Task> dueTasks : deadlines.subMap(toEpochSecond(from), true, toEpochSecond(to), true).values()) {
+            results.addAll(dueTasks);
+        }
+        return results;
+    }
+
+    /**
+     * Finds the events overlapping the window, earliest start first
+     */
+    List<Task> findEvents(LocalDateTime from, LocalDateTime to) {
+        List<Task> results = new ArrayList<>();
+        events.collectOverlapping(toEpochSecond(from), toEpochSecond(to), results);
+        return results;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,80 @@
+package purpleguy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import purpleguy.metrics.Metrics;
+import purpleguy.parser.Parser;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.ObjectTaskList;
+import purpleguy.tasklist.TaskList;
+
+public class BatchRunnerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void batch_runner_test() throws Exception {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+        String script = "todo homework\n\nmark 5\ndeadline chores /by 2026-01-28 13:00\nmark 1\nbye\ntodo ignored\n";
+
+        Metrics metrics = new Metrics();
+        Parser parser = new Parser(testTL, storage, metrics);
+        String summary = new BatchRunner(testTL, storage, parser).run(new BufferedReader(new StringReader(script)));
+        assertTrue(summary.startsWith("Batch complete: 6 lines, 3 applied, 1 rejected"));
+        assertTrue(summary.contains("line 3: "));
+        assertEquals(4, metrics.get("parse").getCount());
+        assertEquals(1, metrics.getTotal("rejected.mark"));
+        // The batch is persisted as one snapshot, leaving only the generation header in the journal
+        List<String> journalLines = Files.readAllLines(tempDir.resolve("PurpleGuy.txt.journal"));
+        assertEquals(1, journalLines.size());
+        assertTrue(journalLines.get(0).startsWith("#gen "));
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(2, reloadedTL.size());
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void interrupted_batch_test() throws Exception {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+        BufferedReader script = new BufferedReader(new StringReader("todo homework\ntodo chores\ntodo lost\n")) {
+            private int linesRead;
+
+            @Override
+            public String readLine() throws IOException {
+                if (++linesRead > 2) {
+                    throw new IOException("pipe closed");
+                }
+                return super.readLine();
+            }
+        };
+
+        String summary = new BatchRunner(testTL, storage).run(script);
+        assertTrue(summary.startsWith("Batch stopped after line 2"), summary);
+        assertTrue(summary.contains("pipe closed"));
+        assertTrue(summary.contains("2 lines, 2 applied, 0 rejected"));
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+        assertEquals(2, reloadedTL.size());
+    }
+}
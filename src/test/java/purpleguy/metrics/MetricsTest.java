@@ -0,0 +1,48 @@
+package purpleguy.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import purpleguy.exception.AftonException;
+import purpleguy.exception.ValidationError;
+import purpleguy.parser.Parser;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.ObjectTaskList;
+
+public class MetricsTest {
+    @Test
+    public void histogram_quantile_test() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        long median = histogram.getValueAtQuantile(0.5);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assertTrue(median >= 5_000_000 && median <= 5_000_000 * 17 / 16, "median was " + median);
+        assertTrue(p99 >= 9_900_000 && p99 <= 9_900_000 * 17 / 16, "p99 was " + p99);
+    }
+
+    @Test
+    public void stage_timing_test() throws AftonException {
+        Metrics metrics = new Metrics();
+        Storage storage = new Storage();
+        storage.beginBatch();
+        Parser parser = new Parser(new ObjectTaskList(), storage, metrics);
+        parser.parse("todo homework");
+        parser.parse("mark 1");
+        assertEquals(2, metrics.get("parse").getCount());
+        assertEquals(1, metrics.get("validate.todo").getCount());
+        assertEquals(1, metrics.get("execute.mark").getCount());
+        assertThrows(AftonException.class, () -> parser.parse("mark 5"));
+        assertEquals(2, metrics.get("validate.mark").getCount());
+        assertEquals(1, metrics.getTotal("rejected.mark"));
+        assertEquals(ValidationError.COMMAND_FAILED, parser.tryParse("delete find springtrap").getError());
+        assertEquals(1, metrics.get("execute.delete").getCount());
+        assertTrue(parser.parse("stats").contains("execute.todo"));
+    }
+}
@@ -1,15 +1,31 @@
 package purpleguy.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import purpleguy.exception.AftonException;
+import purpleguy.exception.ValidationError;
+import purpleguy.storage.Storage;
+import purpleguy.tasklist.ObjectTaskList;
 import purpleguy.tasklist.TaskList;
 
 public class ParserTest {
-    private TaskList taskList = new TaskList();
+    @TempDir
+    Path tempDir;
+
+    private TaskList taskList = new ObjectTaskList();
 
     @Test
     public void missing_info_test() {
@@ -31,4 +47,66 @@ public class ParserTest {
                     + " Precision is the difference between a masterpiece and a... mess."
                     + "\n[HINT]: A deadline requires a '/by [time]' marker.", exception.getMessage());
     }
+
+    @Test
+    public void parsed_command_test() throws AftonException {
+        Parser testParser = new Parser(taskList, new Storage(tempDir.resolve("PurpleGuy.txt").toString(), false));
+        testParser.parse("deadline night shift /by 2026-01-28 23:59");
+        testParser.parse("event Sports Day /from 2026-01-29 13:00 /to 2026-01-30 13:00");
+        testParser.parse("mark #2");
+        assertEquals(List.of("D |   | night shift | Jan 28 2026 23:59",
+            "E | X | Sports Day | Jan 29 2026 13:00 - Jan 30 2026 13:00"), taskList.toData());
+
+        Exception exception = assertThrows(AftonException.class,
+            () -> testParser.parse("deadline night shift /by tomorrow"));
+        assertEquals("Your grasp of time is... messy.", exception.getMessage().substring(0, 31));
+        assertEquals(2, taskList.size());
+    }
+
+    @Test
+    public void rejected_input_test() throws AftonException {
+        Parser testParser = new Parser(taskList, new Storage(tempDir.resolve("PurpleGuy.txt").toString(), false));
+        assertEquals(ValidationError.NOTHING_TO_ACT_ON, testParser.tryParse("mark 1").getError());
+        assertFalse(testParser.tryParse("deadline night shift /by 2026-02-30 23:59").isRejected());
+        assertEquals("D |   | night shift | Feb 28 2026 23:59", taskList.get(0).toData());
+
+        assertEquals(ValidationError.UNKNOWN_COMMAND, testParser.tryParse("springtrap").getError());
+        assertEquals(ValidationError.RESERVED_SYMBOL, testParser.tryParse("todo a | b").getError());
+        assertEquals(ValidationError.TIME_WRONG_FORMAT,
+            testParser.tryParse("deadline night shift /by 2026-01-28 24:00").getError());
+        assertEquals(ValidationError.DAY_WRONG_FORMAT, testParser.tryParse("on 2026-02-30").getError());
+        assertEquals(ValidationError.NOT_A_NUMBER, testParser.tryParse("mark 99999999999").getError());
+        assertEquals(ValidationError.INDEX_OUT_OF_BOUNDS, testParser.tryParse("mark -1").getError());
+        assertEquals(ValidationError.NOT_AN_ID, testParser.tryParse("delete #one").getError());
+        assertEquals("'five' is not a number.I require mathematical precision, not guesswork."
+            + "\n[HINT]: Provide a valid integer index.", testParser.tryParse("mark five").getErrorMessage());
+        Exception exception = assertThrows(AftonException.class, () -> testParser.parse("mark five"));
+        assertEquals(testParser.tryParse("mark five").getErrorMessage(), exception.getMessage());
+        assertEquals(1, taskList.size());
+    }
+
+    @Test
+    public void page_size_test() throws AftonException {
+        Parser testParser = new Parser(taskList, new Storage(tempDir.resolve("PurpleGuy.txt").toString(), false));
+        testParser.parse("todo homework");
+        assertEquals(ValidationError.PAGE_SIZE_TOO_LARGE, testParser.tryParse("list 1 40000000").getError());
+        assertEquals(ValidationError.PAGE_SIZE_TOO_LARGE, testParser.tryParse("list 1 999999999").getError());
+        assertFalse(testParser.tryParse("list 1 1000").isRejected());
+    }
+
+    @Test
+    public void query_without_lock_test() throws Exception {
+        Parser parser = new Parser(taskList, new Storage(tempDir.resolve("PurpleGuy.txt").toString(), true));
+        parser.parse("todo homework");
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            // Holding the registry's lock stands in for a change which is still being carried out
+            synchronized (taskList) {
+                Future<String> listing = reader.submit(() -> parser.parse("list"));
+                assertTrue(listing.get(5, TimeUnit.SECONDS).contains("homework"));
+            }
+        } finally {
+            reader.shutdownNow();
+        }
+    }
 }
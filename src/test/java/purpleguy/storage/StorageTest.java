@@ -0,0 +1,526 @@
+package purpleguy.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import purpleguy.Deadline;
+import purpleguy.Event;
+import purpleguy.Task;
+import purpleguy.ToDo;
+import purpleguy.exception.AftonException;
+import purpleguy.exception.UnreadableLedgerException;
+import purpleguy.metrics.Metrics;
+import purpleguy.parser.Parser;
+import purpleguy.tasklist.ColumnarTaskList;
+import purpleguy.tasklist.LazyTaskList;
+import purpleguy.tasklist.ObjectTaskList;
+import purpleguy.tasklist.TaskList;
+
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void journal_replay_test() throws AftonException {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+
+        addTask(storage, testTL, new ToDo("homework"));
+        addTask(storage, testTL, new Deadline("household chores", LocalDateTime.of(2026, 1, 28, 13, 0)));
+        addTask(storage, testTL, new ToDo("sports day"));
+        testTL.get(1).mark();
+        storage.logMark(testTL, 1);
+        testTL.remove(0);
+        storage.logDelete(testTL, 0);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void journal_compaction_test() throws AftonException {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true, 64);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+        for (int i = 0; i < 50; i++) {
+            addTask(storage, testTL, new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void binary_snapshot_test() throws AftonException {
+        String filePath = tempDir.resolve("PurpleGuy.bin").toString();
+        Storage storage = new Storage(filePath, false, Storage.DEFAULT_COMPACTION_THRESHOLD, Storage.Format.BINARY);
+        TaskList testTL = new ObjectTaskList();
+        testTL.addTask(new ToDo("homework"));
+        testTL.addTask(new Deadline("household chores", LocalDateTime.of(2026, 1, 28, 13, 0)));
+        testTL.addTask(new Event("Sports Day", LocalDateTime.of(2026, 1, 29, 13, 0),
+            LocalDateTime.of(2026, 1, 30, 13, 0)));
+        testTL.addTask(new ToDo("homework"));
+        testTL.get(2).mark();
+        storage.storeTL(testTL);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, false).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+
+        String exportPath = tempDir.resolve("export.txt").toString();
+        storage.exportText(reloadedTL, exportPath);
+        TaskList importedTL = new ObjectTaskList();
+        new Storage(tempDir.resolve("imported.bin").toString(), false).importText(exportPath, importedTL);
+        assertEquals(testTL.toData(), importedTL.toData());
+    }
+
+    @Test
+    public void text_reader_line_number_test() throws Exception {
+        Path filePath = tempDir.resolve("PurpleGuy.txt");
+        Files.write(filePath, List.of("T |   | homework",
+            "D | X | household chores | Jan 28 2026 13:00",
+            "E |   | Sports Day | Jan 29 2026 13:00 - Jan 30 2026 13:00",
+            "D |   | broken | tomorrow"));
+        TaskList testTL = new ObjectTaskList();
+        Exception exception = assertThrows(AftonException.class,
+            () -> new Storage(filePath.toString(), false).readTL(testTL));
+        assertEquals("Someone messed with my files... (line 4)", exception.getMessage());
+        assertEquals(List.of("T |   | homework", "D | X | household chores | Jan 28 2026 13:00",
+            "E |   | Sports Day | Jan 29 2026 13:00 - Jan 30 2026 13:00"), testTL.toData());
+    }
+
+    @Test
+    public void scheduler_flush_test() throws AftonException {
+        Path filePath = tempDir.resolve("PurpleGuy.txt");
+        Storage storage = new Storage(filePath.toString(), false);
+        TaskList testTL = new ObjectTaskList();
+        PersistenceScheduler scheduler = new PersistenceScheduler(storage, testTL, 60_000, 1000);
+        addTask(storage, testTL, new ToDo("homework"));
+        addTask(storage, testTL, new ToDo("sports day"));
+        assertFalse(Files.exists(filePath));
+
+        scheduler.shutDown();
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath.toString(), false).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void snapshot_checksum_test() throws Exception {
+        Path filePath = tempDir.resolve("PurpleGuy.txt");
+        Storage storage = new Storage(filePath.toString(), false);
+        TaskList testTL = new ObjectTaskList();
+        testTL.addTask(new ToDo("homework"));
+        storage.storeTL(testTL);
+        assertFalse(Files.exists(tempDir.resolve("PurpleGuy.txt.tmp")));
+
+        String contents = Files.readString(filePath);
+        Files.writeString(filePath, contents.replace("homework", "homewrok"));
+        Exception exception = assertThrows(AftonException.class,
+            () -> new Storage(filePath.toString(), false).readTL(new ObjectTaskList()));
+        assertEquals("Someone messed with my files... (checksum mismatch)", exception.getMessage());
+
+        storage.storeTL(testTL);
+        contents = Files.readString(filePath);
+        Files.writeString(filePath, contents.substring(0, contents.indexOf(SnapshotFile.CHECKSUM_TRAILER)));
+        exception = assertThrows(AftonException.class,
+            () -> new Storage(filePath.toString(), false).readTL(new ObjectTaskList()));
+        assertEquals("Someone messed with my files... (checksum missing)", exception.getMessage());
+
+        Files.writeString(filePath, "T |   | homework" + System.lineSeparator());
+        TaskList legacyTL = new ObjectTaskList();
+        new Storage(filePath.toString(), false).readTL(legacyTL);
+        assertEquals(List.of("T |   | homework"), legacyTL.toData());
+    }
+
+    @Test
+    public void bulk_selection_test() throws AftonException {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+        Parser parser = new Parser(testTL, storage);
+        for (int i = 1; i <= 20; i++) {
+            parser.parse("todo " + (i % 4 == 0 ? "fright night " : "shift ") + i);
+        }
+        parser.parse("mark 3-6");
+        parser.parse("mark find fright");
+        parser.parse("unmark 8-8");
+        parser.parse("delete done");
+        assertThrows(AftonException.class, () -> parser.parse("delete done"));
+        assertThrows(AftonException.class, () -> parser.parse("mark 5-100"));
+
+        assertEquals(13, testTL.size());
+        assertEquals("T |   | shift 9", testTL.get(4).toData());
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void independent_ledgers_test() throws Exception {
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService users = Executors.newFixedThreadPool(3);
+        List<TaskList> taskLists = new ArrayList<>();
+        List<PersistenceScheduler> schedulers = new ArrayList<>();
+        List<Future<?>> sessions = new ArrayList<>();
+        for (int ledger = 0; ledger < 3; ledger++) {
+            Storage storage = new Storage(tempDir.resolve("ledger" + ledger + ".txt").toString(), true);
+            TaskList testTL = new ObjectTaskList();
+            storage.readTL(testTL);
+            schedulers.add(new PersistenceScheduler(storage, testTL, flusher));
+            taskLists.add(testTL);
+            Parser parser = new Parser(testTL, storage);
+            String name = "ledger " + ledger + " shift ";
+            int taskCount = 100 * (ledger + 1);
+            sessions.add(users.submit(() -> {
+                for (int i = 1; i <= taskCount; i++) {
+                    parser.parse("todo " + name + i);
+                }
+                return parser.parse("mark 1");
+            }));
+        }
+        // Rethrows anything a session threw on its own thread
+        for (Future<?> session : sessions) {
+            session.get();
+        }
+        users.shutdown();
+        schedulers.forEach(PersistenceScheduler::shutDown);
+        flusher.shutdown();
+
+        for (int ledger = 0; ledger < 3; ledger++) {
+            TaskList reloadedTL = new ObjectTaskList();
+            new Storage(tempDir.resolve("ledger" + ledger + ".txt").toString(), true).readTL(reloadedTL);
+            assertEquals(100 * (ledger + 1), reloadedTL.size());
+            assertEquals("T | X | ledger " + ledger + " shift 1", reloadedTL.get(0).toData());
+            assertEquals(taskLists.get(ledger).toData(), reloadedTL.toData());
+        }
+    }
+
+    @Test
+    public void paged_snapshot_test() throws Exception {
+        Path filePath = tempDir.resolve("PurpleGuy.pg");
+        Storage storage = new Storage(filePath.toString(), false, Storage.DEFAULT_COMPACTION_THRESHOLD,
+            Storage.Format.PAGED);
+        Metrics metrics = new Metrics();
+        storage.setMetrics(metrics);
+        TaskList testTL = new ObjectTaskList();
+        for (int i = 1; i <= 5000; i++) {
+            testTL.addTask(i % 10 == 0
+                ? new Deadline("night shift " + i, LocalDateTime.of(2026, 1, 28, 13, 0).plusHours(i))
+                : new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+        long ledgerPages = metrics.getTotal("storage.ledgerPages");
+        assertTrue(ledgerPages > 20);
+        assertEquals(ledgerPages, metrics.getTotal("storage.pagesWritten"));
+
+        testTL.mark(2500);
+        storage.logMark(testTL, 2500);
+        assertEquals(ledgerPages + 1, metrics.getTotal("storage.pagesWritten"));
+        testTL.remove(10);
+        storage.logDelete(testTL, 10);
+        addTask(storage, testTL, new Event("Sports Day", LocalDateTime.of(2026, 1, 29, 13, 0),
+            LocalDateTime.of(2026, 1, 30, 13, 0)));
+        assertEquals(ledgerPages + 3, metrics.getTotal("storage.pagesWritten"));
+        assertTrue(metrics.getTotal("storage.bytesWritten") < metrics.getTotal("storage.ledgerBytes") * 2 / 3);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        Storage reloadedStorage = new Storage(filePath.toString(), false, Storage.DEFAULT_COMPACTION_THRESHOLD,
+            Storage.Format.PAGED);
+        reloadedStorage.readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+
+        reloadedTL.unmark(2499);
+        reloadedStorage.logUnmark(reloadedTL, 2499);
+        for (int i = 0; i < 4000; i++) {
+            reloadedTL.remove(0);
+        }
+        reloadedStorage.logDelete(reloadedTL, 0);
+        TaskList columnarTL = new ColumnarTaskList();
+        new Storage(filePath.toString(), false).readTL(columnarTL);
+        assertEquals(reloadedTL.toData(), columnarTL.toData());
+        assertEquals("T |   | task 4002", columnarTL.get(0).toData());
+    }
+
+    @Test
+    public void paged_header_test() throws Exception {
+        Path filePath = tempDir.resolve("PurpleGuy.pg");
+        Storage storage = new Storage(filePath.toString(), false, Storage.DEFAULT_COMPACTION_THRESHOLD,
+            Storage.Format.PAGED);
+        TaskList testTL = new ObjectTaskList();
+        for (int i = 1; i <= 500; i++) {
+            testTL.addTask(new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+        List<String> savedData = testTL.toData();
+        testTL.mark(0);
+        storage.logMark(testTL, 0);
+        testTL.mark(1);
+        storage.logMark(testTL, 1);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath.toString(), false).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+
+        // Tear the newest header, which the second save wrote over the first copy, and the save before it is read
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {-1, -1, -1, -1}), 10);
+        }
+        TaskList tornTL = new ObjectTaskList();
+        new Storage(filePath.toString(), false).readTL(tornTL);
+        assertEquals(savedData.subList(1, 500), tornTL.toData().subList(1, 500));
+        assertEquals("T | X | task 1", tornTL.get(0).toData());
+        assertEquals("T |   | task 2", tornTL.get(1).toData());
+    }
+
+    @Test
+    public void lazy_load_test() throws Exception {
+        String filePath = tempDir.resolve("PurpleGuy.pg").toString();
+        Storage storage = new Storage(filePath, false, Storage.DEFAULT_COMPACTION_THRESHOLD, Storage.Format.PAGED);
+        TaskList testTL = new ObjectTaskList();
+        for (int i = 1; i <= 3000; i++) {
+            testTL.addTask(new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+
+        Metrics metrics = new Metrics();
+        Storage lazyStorage = new Storage(filePath, false, Storage.DEFAULT_COMPACTION_THRESHOLD, Storage.Format.PAGED);
+        lazyStorage.setMetrics(metrics);
+        LazyTaskList lazyTL = new LazyTaskList();
+        lazyStorage.readTL(lazyTL);
+        assertEquals(3000, lazyTL.size());
+        assertEquals("T |   | task 2", lazyTL.get(1).toData());
+        lazyTL.mark(1);
+        assertEquals(2499, lazyTL.indexOfId(2500));
+        assertFalse(lazyTL.isLoaded());
+        assertEquals(1, lazyTL.findTasks("task 2999").size());
+        assertTrue(lazyTL.isLoaded());
+        lazyStorage.logMark(lazyTL, 1);
+        assertEquals(1, metrics.getTotal("storage.pagesWritten"));
+
+        testTL.mark(1);
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, false).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void lazy_load_corrupt_page_test() throws Exception {
+        Path filePath = tempDir.resolve("PurpleGuy.pg");
+        Storage storage = new Storage(filePath.toString(), false, Storage.DEFAULT_COMPACTION_THRESHOLD,
+            Storage.Format.PAGED);
+        TaskList testTL = new ObjectTaskList();
+        for (int i = 1; i <= 3000; i++) {
+            testTL.addTask(new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+        // Pages start at the second 4096-byte slot, so this lands in the middle of the fifth page
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {-1, -1, -1, -1}), 5 * 4096 + 100);
+        }
+        byte[] corrupted = Files.readAllBytes(filePath);
+
+        Storage lazyStorage = new Storage(filePath.toString(), false, Storage.DEFAULT_COMPACTION_THRESHOLD,
+            Storage.Format.PAGED);
+        LazyTaskList lazyTL = new LazyTaskList();
+        lazyStorage.readTL(lazyTL);
+        assertEquals("T |   | task 1", lazyTL.get(0).toData());
+        assertThrows(UnreadableLedgerException.class, () -> lazyTL.get(2999));
+        assertTrue(lazyTL.isUnreadable());
+        assertThrows(UnreadableLedgerException.class, () -> lazyTL.get(2999));
+
+        Parser parser = new Parser(lazyTL, lazyStorage);
+        assertThrows(AftonException.class, () -> parser.parse("mark 2999"));
+        assertThrows(AftonException.class, () -> parser.parse("find task"));
+        lazyStorage.storeTL(lazyTL);
+        assertArrayEquals(corrupted, Files.readAllBytes(filePath));
+    }
+
+    @Test
+    public void journal_size_test() {
+        String[] records = {"A|T|0|homework", "A|T|0|caf\u00e9", "A|T|0|\u8a95\u751f\u65e5",
+            "A|T|0|\ud83c\udf55 night"};
+        for (String record : records) {
+            assertEquals(record.getBytes(StandardCharsets.UTF_8).length, Journal.encodedLength(record));
+        }
+    }
+
+    @Test
+    public void load_progress_test() throws AftonException {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, false);
+        TaskList testTL = new ObjectTaskList();
+        testTL.addTask(new ToDo("homework"));
+        storage.storeTL(testTL);
+        List<Long> progress = new ArrayList<>();
+        storage.setProgressListener(progress::add);
+        storage.readTL(new ObjectTaskList());
+        // A ledger small enough to load at once reports no progress
+        assertTrue(progress.isEmpty());
+
+        for (int i = 1; i < 150_000; i++) {
+            testTL.addTask(new ToDo("task " + i));
+        }
+        storage.storeTL(testTL);
+        storage.readTL(new ObjectTaskList());
+        assertEquals(2, progress.size());
+        assertEquals(100_000, progress.get(0).longValue());
+        assertTrue(progress.get(1) >= 150_000);
+    }
+
+    @Test
+    public void export_import_test() throws Exception {
+        Storage storage = new Storage(tempDir.resolve("PurpleGuy.bin").toString(), true,
+            Storage.DEFAULT_COMPACTION_THRESHOLD, Storage.Format.BINARY);
+        TaskList testTL = new ObjectTaskList();
+        Parser parser = new Parser(testTL, storage);
+        parser.parse("todo homework");
+        parser.parse("deadline chores /by 2026-01-28 13:00");
+        parser.parse("mark 1");
+        Path exportPath = tempDir.resolve("export").resolve("tasks.txt");
+        parser.parse("export " + exportPath);
+        assertEquals(testTL.toData(), Files.readAllLines(exportPath));
+
+        Files.writeString(tempDir.resolve("broken.txt"), "T | X | chores\nnot a task\n");
+        assertThrows(AftonException.class, () -> parser.parse("import " + tempDir.resolve("broken.txt")));
+        assertEquals(2, testTL.size());
+        assertThrows(AftonException.class, () -> parser.parse("import"));
+
+        parser.parse("import " + exportPath);
+        assertEquals(4, testTL.size());
+        assertEquals(testTL.get(0).toData(), testTL.get(2).toData());
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(tempDir.resolve("PurpleGuy.bin").toString(), true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+    }
+
+    @Test
+    public void journaled_store_test() throws Exception {
+        String filePath = tempDir.resolve("PurpleGuy.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        CountDownLatch isWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Holds up the snapshot write at its first task until released
+        TaskList testTL = new ObjectTaskList() {
+            @Override
+            public List<Task> getTasks() {
+                List<Task> tasks = super.getTasks();
+                return new AbstractList<Task>() {
+                    @Override
+                    public Task get(int i) {
+                        isWriting.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        return tasks.get(i);
+                    }
+
+                    @Override
+                    public int size() {
+                        return tasks.size();
+                    }
+                };
+            }
+        };
+        storage.readTL(testTL);
+        addTask(storage, testTL, new ToDo("homework"));
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> save = threads.submit(() -> storage.storeTL(testTL));
+            assertTrue(isWriting.await(5, TimeUnit.SECONDS));
+            // The save is part way through writing the snapshot, yet a command can still record its change
+            threads.submit(() -> addTask(storage, testTL, new ToDo("chores"))).get(5, TimeUnit.SECONDS);
+            release.countDown();
+            save.get();
+        } finally {
+            threads.shutdownNow();
+        }
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(testTL.toData(), reloadedTL.toData());
+        assertEquals(2, reloadedTL.size());
+    }
+
+    @Test
+    public void task_id_persistence_test() throws AftonException {
+        for (Storage.Format format : Storage.Format.values()) {
+            String filePath = tempDir.resolve("ids-" + format + ".txt").toString();
+            Storage storage = new Storage(filePath, false, Storage.DEFAULT_COMPACTION_THRESHOLD, format);
+            TaskList testTL = new ObjectTaskList();
+            testTL.addTask(new ToDo("a"));
+            testTL.addTask(new ToDo("b"));
+            testTL.addTask(new ToDo("c"));
+            testTL.remove(2);
+            testTL.remove(0);
+            storage.storeTL(testTL);
+            // Only the next ID changes, which paged snapshots still have to write
+            testTL.addTask(new ToDo("d"));
+            testTL.remove(1);
+            storage.storeTL(testTL);
+
+            for (TaskList reloadedTL : List.of(new ObjectTaskList(), new LazyTaskList(), new ColumnarTaskList())) {
+                new Storage(filePath, false).readTL(reloadedTL);
+                assertEquals(5L, reloadedTL.getNextId());
+                assertEquals(2L, reloadedTL.get(0).getId());
+                reloadedTL.addTask(new ToDo("e"));
+                assertEquals(5L, reloadedTL.get(1).getId());
+            }
+        }
+
+        String filePath = tempDir.resolve("ids-journal.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList testTL = new ObjectTaskList();
+        storage.readTL(testTL);
+        addTask(storage, testTL, new ToDo("a"));
+        addTask(storage, testTL, new ToDo("b"));
+        addTask(storage, testTL, new ToDo("c"));
+        testTL.remove(2);
+        storage.logDelete(testTL, 2);
+        testTL.remove(0);
+        storage.logDelete(testTL, 0);
+
+        TaskList reloadedTL = new ObjectTaskList();
+        new Storage(filePath, true).readTL(reloadedTL);
+        assertEquals(2L, reloadedTL.get(0).getId());
+        assertEquals(4L, reloadedTL.getNextId());
+    }
+
+    private static void addTask(Storage storage, TaskList tL, Task task) {
+        tL.addTask(task);
+        storage.logAdd(tL, task);
+    }
+}
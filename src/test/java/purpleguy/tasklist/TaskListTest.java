@@ -1,21 +1,25 @@
 package purpleguy.tasklist;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import purpleguy.Deadline;
 import purpleguy.Event;
+import purpleguy.Task;
 import purpleguy.ToDo;
 
 public class TaskListTest {
     @Test
     public void task_conversion_test() {
-        TaskList testTL = new TaskList();
+        TaskList testTL = new ObjectTaskList();
         ToDo testToDo = new ToDo("homework");
         Deadline testDeadline = new Deadline("household chores", LocalDateTime.parse("2026-01-28 13:00",
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
@@ -31,4 +35,164 @@ public class TaskListTest {
         testTL.addTask(testEvent);
         assertEquals(testTL.toData(), testList.stream().toList());
     }
+
+    @Test
+    public void find_tasks_test() {
+        TaskList testTL = new ObjectTaskList();
+        for (int i = 0; i < 3000; i++) {
+            testTL.addTask(new ToDo("Task number " + i));
+        }
+        testTL.addTask(new ToDo("Fazbear Frights"));
+        testTL.addTask(new ToDo("frighten the night guard"));
+        for (int i = 0; i < 2500; i++) {
+            testTL.remove(0);
+        }
+
+        assertEquals(List.of("T |   | Fazbear Frights", "T |   | frighten the night guard"),
+            testTL.findTasks("fright").stream().map(x -> x.toData()).toList());
+        assertEquals(List.of("T |   | Task number 2999"),
+            testTL.findTasks("r 2999").stream().map(x -> x.toData()).toList());
+        assertEquals(0, testTL.findTasks("r 2499").size());
+        assertEquals(2, testTL.findTasks("fr").size());
+        assertEquals(0, testTL.findTasks("springtrap").size());
+    }
+
+    @Test
+    public void time_index_test() {
+        TaskList testTL = new ObjectTaskList();
+        Deadline early = new Deadline("early", LocalDateTime.of(2026, 1, 28, 9, 0));
+        Deadline late = new Deadline("late", LocalDateTime.of(2026, 1, 28, 23, 0));
+        Event night = new Event("night shift", LocalDateTime.of(2026, 1, 27, 22, 0),
+            LocalDateTime.of(2026, 1, 28, 6, 0));
+        Event party = new Event("party", LocalDateTime.of(2026, 1, 28, 14, 0),
+            LocalDateTime.of(2026, 1, 28, 16, 0));
+        testTL.addTask(late);
+        testTL.addTask(party);
+        testTL.addTask(new ToDo("homework"));
+        testTL.addTask(early);
+        testTL.addTask(night);
+
+        LocalDateTime dayStart = LocalDateTime.of(2026, 1, 28, 0, 0);
+        LocalDateTime dayEnd = LocalDateTime.of(2026, 1, 28, 23, 59);
+        assertEquals(List.of(early, late), testTL.findDeadlines(dayStart, dayEnd));
+        assertEquals(List.of(night, party), testTL.findEvents(dayStart, dayEnd));
+        assertEquals(List.of(party), testTL.findEvents(LocalDateTime.of(2026, 1, 28, 15, 0),
+            LocalDateTime.of(2026, 1, 28, 15, 30)));
+
+        testTL.remove(1);
+        testTL.remove(2);
+        assertEquals(List.of(late), testTL.findDeadlines(dayStart, dayEnd));
+        assertEquals(List.of(night), testTL.findEvents(dayStart, dayEnd));
+    }
+
+    @Test
+    public void stable_id_test() {
+        for (TaskList testTL : List.of(new ObjectTaskList(), new ColumnarTaskList())) {
+            for (int i = 1; i <= 3000; i++) {
+                testTL.addTask(new ToDo("Task number " + i));
+            }
+            for (int i = 0; i < 2000; i++) {
+                testTL.remove(i % 2 == 0 ? 0 : testTL.size() - 1);
+            }
+
+            assertEquals(1000, testTL.size());
+            assertEquals(1001, testTL.get(0).getId());
+            assertEquals("Task number 1001", testTL.get(0).getName());
+            assertEquals(999, testTL.indexOfId(2000));
+            assertEquals(-1, testTL.indexOfId(1000));
+            assertEquals(-1, testTL.indexOfId(2001));
+            testTL.remove(testTL.indexOfId(1500));
+            assertEquals("Task number 1501", testTL.get(499).getName());
+            testTL.addTask(new ToDo("Fazbear Frights"));
+            assertEquals(3001, testTL.get(999).getId());
+        }
+    }
+
+    @Test
+    public void columnar_task_list_test() {
+        TaskList objectTL = new ObjectTaskList();
+        TaskList columnarTL = new ColumnarTaskList();
+        for (TaskList testTL : List.of(objectTL, columnarTL)) {
+            for (int i = 0; i < 100; i++) {
+                LocalDateTime time = LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(100 - i);
+                testTL.addTask(i % 3 == 0 ? new ToDo("Shift " + i)
+                    : i % 3 == 1 ? new Deadline("Report " + (i % 10), time)
+                    : new Event("Show " + i, time, time.plusHours(3)));
+            }
+            for (int i = 0; i < 100; i += 7) {
+                testTL.mark(i);
+            }
+            testTL.unmark(14);
+            testTL.remove(0);
+            testTL.remove(50);
+        }
+
+        assertEquals(objectTL.toData(), columnarTL.toData());
+        assertEquals(objectTL.get(20).toData(), columnarTL.get(20).toData());
+        assertEquals(toData(objectTL.findTasks("report 3")), toData(columnarTL.findTasks("report 3")));
+        assertEquals(toData(objectTL.findTasks("1")), toData(columnarTL.findTasks("1")));
+        LocalDateTime from = LocalDateTime.of(2026, 1, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 3, 12, 0);
+        assertEquals(toData(objectTL.findDeadlines(from, to)), toData(columnarTL.findDeadlines(from, to)));
+        assertEquals(toData(objectTL.findEvents(from, to)), toData(columnarTL.findEvents(from, to)));
+
+        for (TaskList testTL : List.of(objectTL, columnarTL)) {
+            testTL.removeAll(new int[] {1, 2, 3, 40, 41, 97});
+            testTL.addTask(new Deadline("Report 3", LocalDateTime.of(2026, 1, 2, 6, 0)));
+        }
+        assertEquals(objectTL.toData(), columnarTL.toData());
+        assertEquals(toData(objectTL.findTasks("report 3")), toData(columnarTL.findTasks("report 3")));
+        assertEquals(toData(objectTL.findTasks("o")), toData(columnarTL.findTasks("o")));
+        assertEquals(0, columnarTL.findTasks("springtrap").size());
+        assertEquals(toData(objectTL.findDeadlines(from, to)), toData(columnarTL.findDeadlines(from, to)));
+        assertEquals(toData(objectTL.findEvents(from, to)), toData(columnarTL.findEvents(from, to)));
+    }
+
+    @Test
+    public void snapshot_test() {
+        LocalDateTime time = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (TaskList testTL : List.of(new ObjectTaskList(), new ColumnarTaskList())) {
+            testTL.addTask(new ToDo("Fazbear Frights"));
+            testTL.addTask(new Deadline("night shift", time));
+            testTL.addTask(new Event("Sports Day", time, time.plusHours(3)));
+            List<Task> snapshot = testTL.getTasks();
+            List<String> snapshotData = toData(snapshot);
+            assertSame(snapshot, testTL.getTasks());
+
+            testTL.mark(0);
+            testTL.mark(1);
+            testTL.mark(2);
+            testTL.remove(0);
+            testTL.addTask(new ToDo("springtrap"));
+            assertEquals(snapshotData, toData(snapshot));
+            assertEquals(List.of("D | X | night shift | Jan 01 2026 00:00",
+                "E | X | Sports Day | Jan 01 2026 00:00 - Jan 01 2026 03:00",
+                "T |   | springtrap"), testTL.toData());
+            assertEquals(List.of("D | X | night shift | Jan 01 2026 00:00"), toData(testTL.findTasks("shift")));
+            assertEquals(1, testTL.findDeadlines(time, time).size());
+            assertEquals(1, testTL.findEvents(time, time).size());
+            assertTrue(testTL.findEvents(time, time).get(0).isMarked());
+        }
+    }
+
+    @Test
+    public void render_cache_test() {
+        TaskList testTL = new ObjectTaskList();
+        LocalDateTime time = LocalDateTime.of(2026, 1, 28, 13, 0);
+        testTL.addTask(new Event("Sports Day", time, time.plusDays(1)));
+        Task event = testTL.get(0);
+        assertSame(event.toString(), event.toString());
+        assertSame(event.toData(), event.toData());
+        assertEquals("[E][ ] Sports Day (from: Jan 28 2026 13:00 to: Jan 29 2026 13:00)", event.toString());
+
+        testTL.mark(0);
+        assertEquals("[E][X] Sports Day (from: Jan 28 2026 13:00 to: Jan 29 2026 13:00)", testTL.get(0).toString());
+        assertEquals("E | X | Sports Day | Jan 28 2026 13:00 - Jan 29 2026 13:00", testTL.get(0).toData());
+        testTL.get(0).unmark();
+        assertEquals("E |   | Sports Day | Jan 28 2026 13:00 - Jan 29 2026 13:00", testTL.get(0).toData());
+    }
+
+    private static List<String> toData(List<? extends Task> tasks) {
+        return tasks.stream().map(x -> x.toData()).toList();
+    }
 }